@@ -0,0 +1,143 @@
+package edu.wpi.first.wpilib.opencv.installer.gradle;
+
+import edu.wpi.first.wpilib.opencv.installer.ArtifactType;
+import edu.wpi.first.wpilib.opencv.installer.Installer;
+import edu.wpi.first.wpilib.opencv.installer.platform.Platform;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.ParallelizableTask;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Installs OpenCV artifacts for one platform into a directory, with each artifact type in a subdirectory named after
+ * it, e.g. {@code jni} and {@code natives}. The install runs in the build's JVM, so tasks for several platforms share
+ * downloads and extracted artifacts, and the task is up to date as long as its inputs and the install tree don't
+ * change.
+ *
+ * <p>Install tasks for different platforms can run in parallel: tasks in different projects with {@code --parallel},
+ * and tasks in the same project with {@code -Dorg.gradle.parallel.intra=true}.</p>
+ */
+@ParallelizableTask
+public class InstallOpenCv extends DefaultTask {
+
+    private String version;
+    private String platform;
+    private List<String> types = new ArrayList<>();
+    private String repository;
+    private List<String> modules = new ArrayList<>();
+    private boolean installDependencies = true;
+    private File installDir;
+
+    /**
+     * The version of OpenCV to install.
+     */
+    @Input
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    /**
+     * The name of the platform to install OpenCV for, e.g. "linux-x86_64".
+     */
+    @Input
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    /**
+     * The types of artifacts to install, e.g. "jni" and "natives".
+     */
+    @Input
+    public List<String> getTypes() {
+        return types;
+    }
+
+    public void setTypes(List<String> types) {
+        this.types = new ArrayList<>(types);
+    }
+
+    /**
+     * The maven repository artifacts are installed from. Unless one was set, this is the repository the rest of the
+     * build uses.
+     */
+    @Input
+    public String getRepository() {
+        return repository != null ? repository : Installer.getRepositoryUrl();
+    }
+
+    public void setRepository(String repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * The OpenCV modules to install the JNI and native libraries of. If empty, every module is installed.
+     */
+    @Input
+    public List<String> getModules() {
+        return modules;
+    }
+
+    public void setModules(List<String> modules) {
+        this.modules = new ArrayList<>(modules);
+    }
+
+    /**
+     * Whether the dependencies declared in the POMs of the installed artifacts are installed too.
+     */
+    @Input
+    public boolean isInstallDependencies() {
+        return installDependencies;
+    }
+
+    public void setInstallDependencies(boolean installDependencies) {
+        this.installDependencies = installDependencies;
+    }
+
+    /**
+     * The CPU features to prefer builds of, best first. These pick the classifier of the platform-specific artifacts,
+     * so the task is out of date when the same build runs on a machine with different features.
+     */
+    @Input
+    public List<String> getCpuFeatures() {
+        return Installer.getCpuFeatures(Platform.valueOf(platform));
+    }
+
+    /**
+     * The directory to install into.
+     */
+    @OutputDirectory
+    public File getInstallDir() {
+        return installDir;
+    }
+
+    public void setInstallDir(File installDir) {
+        this.installDir = installDir;
+    }
+
+    @TaskAction
+    public void install() throws IOException {
+        Platform p = Platform.valueOf(platform);
+        // Start from an empty tree so files from a previous version or type don't linger in the outputs
+        getProject().delete(installDir);
+        for (String type : types) {
+            ArtifactType artifactType = ArtifactType.valueOf(type.toUpperCase(Locale.ROOT));
+            Installer.install(artifactType, version, p, installDir.toPath().resolve(type.toLowerCase(Locale.ROOT)));
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package edu.wpi.first.wpilib.opencv.installer.gradle;
+
+import edu.wpi.first.wpilib.opencv.installer.ArtifactType;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code opencv} block of a project that applies the installer plugin.
+ *
+ * <pre>
+ * opencv {
+ *     version = '3.1.0'
+ *     platforms = ['linux-x86_64', 'linux-armhf']
+ *     types = ['jni', 'natives']
+ *     modules = ['core', 'imgproc']
+ * }
+ * </pre>
+ */
+@Getter
+@Setter
+public class OpenCvExtension {
+
+    /**
+     * The version of OpenCV to install. Required.
+     */
+    private String version;
+
+    /**
+     * The platforms to install OpenCV for. Each one gets its own install task. If empty, the platform the build is
+     * running on is used, which is only detected then so builds that list their platforms work on any host.
+     */
+    private List<String> platforms = new ArrayList<>();
+
+    /**
+     * The types of artifacts to install, e.g. "java", "jni", "headers", "natives". Defaults to all of them.
+     */
+    private List<String> types = new ArrayList<>();
+
+    /**
+     * The OpenCV modules to install the JNI and native libraries of, e.g. "core" and "imgproc". This is shared by the
+     * whole build. Defaults to every module.
+     */
+    private List<String> modules = new ArrayList<>();
+
+    /**
+     * Whether to install the dependencies declared in the POMs of the installed artifacts. This is shared by the whole
+     * build. Defaults to true.
+     */
+    private boolean installDependencies = true;
+
+    /**
+     * The maven repository to get artifacts from. This is shared by the whole build. Defaults to the FRC maven
+     * repository.
+     */
+    private String repository;
+
+    /**
+     * The directory to install into. Each platform is installed into a subdirectory named after it. Defaults to
+     * {@code build/opencv}.
+     */
+    private File installDir;
+
+    public OpenCvExtension() {
+        for (ArtifactType type : ArtifactType.values()) {
+            types.add(type.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public void platforms(String... names) {
+        platforms = new ArrayList<>(Arrays.asList(names));
+    }
+
+    public void types(String... names) {
+        types = new ArrayList<>(Arrays.asList(names));
+    }
+
+    public void modules(String... names) {
+        modules = new ArrayList<>(Arrays.asList(names));
+    }
+
+}
@@ -0,0 +1,128 @@
+package edu.wpi.first.wpilib.opencv.installer.gradle;
+
+import edu.wpi.first.wpilib.opencv.installer.Installer;
+import edu.wpi.first.wpilib.opencv.installer.PlatformDetector;
+import edu.wpi.first.wpilib.opencv.installer.UnsupportedOperatingSystemError;
+import org.gradle.api.GradleException;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Adds an {@code opencv} extension and an {@code installOpenCv<Platform>} task for each of its platforms, plus an
+ * {@code installOpenCv} task that installs every platform.
+ *
+ * <p>Installs run in the build's JVM through {@link Installer}, so every project of a build shares its downloads and
+ * its cache of extracted artifacts. That only works if the plugin's classes are loaded once per build, so the plugin
+ * should be on the root project's buildscript classpath.</p>
+ */
+public class OpenCvInstallerPlugin implements Plugin<Project> {
+
+    private static final String REPOSITORY_PROPERTY = "opencvInstallerRepository";
+    private static final String MODULES_PROPERTY = "opencvInstallerModules";
+    private static final String DEPENDENCIES_PROPERTY = "opencvInstallerDependencies";
+    private static final String INSTALLER_PROPERTY = "opencvInstallerClass";
+
+    @Override
+    public void apply(Project project) {
+        OpenCvExtension extension = project.getExtensions().create("opencv", OpenCvExtension.class);
+        Task installAll = project.getTasks().create("installOpenCv");
+        installAll.setGroup("OpenCV");
+        installAll.setDescription("Installs OpenCV for every platform in the opencv block");
+        checkSharedInstaller(project);
+
+        project.afterEvaluate((Project p) -> {
+            if (extension.getRepository() != null) {
+                setShared(p, REPOSITORY_PROPERTY, "repository", extension.getRepository());
+                Installer.setRepositoryUrl(extension.getRepository());
+            }
+            List<String> modules = new ArrayList<>(extension.getModules());
+            Collections.sort(modules);
+            setShared(p, MODULES_PROPERTY, "modules", modules);
+            Installer.setModules(modules);
+            setShared(p, DEPENDENCIES_PROPERTY, "installDependencies", extension.isInstallDependencies());
+            Installer.setInstallDependencies(extension.isInstallDependencies());
+
+            File installDir = extension.getInstallDir() != null
+                    ? extension.getInstallDir()
+                    : new File(p.getBuildDir(), "opencv");
+            for (String platform : platforms(extension)) {
+                InstallOpenCv task = p.getTasks().create("installOpenCv" + taskSuffix(platform), InstallOpenCv.class);
+                task.setGroup("OpenCV");
+                task.setDescription("Installs OpenCV for " + platform);
+                task.setVersion(extension.getVersion());
+                task.setPlatform(platform);
+                task.setTypes(extension.getTypes());
+                task.setRepository(extension.getRepository());
+                task.setModules(modules);
+                task.setInstallDependencies(extension.isInstallDependencies());
+                task.setInstallDir(new File(installDir, platform));
+                installAll.dependsOn(task);
+            }
+        });
+    }
+
+    /**
+     * Warns if this project got its own copy of the installer classes, since it then can't share the cache with the
+     * other projects in the build.
+     */
+    private static void checkSharedInstaller(Project project) {
+        ExtraPropertiesExtension ext = project.getRootProject().getExtensions().getExtraProperties();
+        if (!ext.has(INSTALLER_PROPERTY)) {
+            ext.set(INSTALLER_PROPERTY, Installer.class);
+        } else if (ext.get(INSTALLER_PROPERTY) != Installer.class) {
+            project.getLogger().warn("The OpenCV installer plugin in " + project + " was loaded separately from the " +
+                    "one in other projects, so it won't share their cache. Add the plugin to the buildscript " +
+                    "classpath of the root project to share it.");
+        }
+    }
+
+    /**
+     * Gets the platforms to install for, detecting the platform of the build only if none were given.
+     */
+    private static List<String> platforms(OpenCvExtension extension) {
+        if (!extension.getPlatforms().isEmpty()) {
+            return extension.getPlatforms();
+        }
+        try {
+            return Collections.singletonList(PlatformDetector.getPlatform().name());
+        } catch (UnsupportedOperatingSystemError e) {
+            throw new GradleException("Could not detect the platform to install OpenCV for (" + e.getMessage()
+                    + "). Set opencv.platforms to the platforms to install.");
+        }
+    }
+
+    /**
+     * The installer has one repository, module selection, and dependency setting for the whole build, so every
+     * project has to agree on them.
+     */
+    private static void setShared(Project project, String property, String name, Object value) {
+        ExtraPropertiesExtension ext = project.getRootProject().getExtensions().getExtraProperties();
+        if (ext.has(property) && !value.equals(ext.get(property))) {
+            throw new GradleException("OpenCV " + name + " " + value + " in " + project + " conflicts with "
+                    + ext.get(property) + " used by another project. Every project in a build has to use the same "
+                    + name + ".");
+        }
+        ext.set(property, value);
+    }
+
+    /**
+     * Turns a platform name into a task name suffix, e.g. "linux-x86_64" into "LinuxX86_64".
+     */
+    private static String taskSuffix(String platform) {
+        StringBuilder suffix = new StringBuilder();
+        for (String part : platform.split("-")) {
+            if (!part.isEmpty()) {
+                suffix.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+            }
+        }
+        return suffix.toString();
+    }
+
+}
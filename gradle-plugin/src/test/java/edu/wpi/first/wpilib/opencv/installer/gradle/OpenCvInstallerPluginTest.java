@@ -0,0 +1,162 @@
+package edu.wpi.first.wpilib.opencv.installer.gradle;
+
+import edu.wpi.first.wpilib.opencv.installer.Installer;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OpenCvInstallerPluginTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private String repository;
+    private String arch;
+
+    @Before
+    public void saveInstaller() {
+        repository = Installer.getRepositoryUrl();
+        arch = System.getProperty("os.arch");
+    }
+
+    @After
+    public void resetInstaller() {
+        System.setProperty("os.arch", arch);
+        Installer.setRepositoryUrl(repository);
+        Installer.setModules(Collections.emptyList());
+        Installer.setInstallDependencies(true);
+    }
+
+    @Test
+    public void testTaskPerPlatform() {
+        Project project = project(temp.getRoot(), null);
+        OpenCvExtension opencv = project.getExtensions().getByType(OpenCvExtension.class);
+        opencv.setVersion("3.1.0");
+        opencv.platforms("linux-x86_64", "linux-armhf");
+        opencv.types("jni", "natives");
+        opencv.modules("imgproc", "core");
+        opencv.setRepository("http://localhost:8081/maven");
+        opencv.setInstallDependencies(false);
+        evaluate(project);
+
+        Task installAll = project.getTasks().getByName("installOpenCv");
+        InstallOpenCv x86 = (InstallOpenCv) project.getTasks().getByName("installOpenCvLinuxX86_64");
+        InstallOpenCv armhf = (InstallOpenCv) project.getTasks().getByName("installOpenCvLinuxArmhf");
+        assertTrue(installAll.getDependsOn().containsAll(Arrays.asList(x86, armhf)));
+
+        assertEquals("3.1.0", x86.getVersion());
+        assertEquals("linux-x86_64", x86.getPlatform());
+        assertEquals("linux-armhf", armhf.getPlatform());
+        assertEquals(Arrays.asList("jni", "natives"), x86.getTypes());
+        assertEquals(Arrays.asList("core", "imgproc"), x86.getModules());
+        assertEquals("http://localhost:8081/maven", x86.getRepository());
+        assertFalse(x86.isInstallDependencies());
+        File installDir = new File(project.getBuildDir(), "opencv");
+        assertEquals(new File(installDir, "linux-x86_64"), x86.getInstallDir());
+        assertEquals(new File(installDir, "linux-armhf"), armhf.getInstallDir());
+
+        // The build-wide settings go to the installer
+        assertEquals("http://localhost:8081/maven", Installer.getRepositoryUrl());
+    }
+
+    @Test
+    public void testInputsAndOutputs() throws NoSuchMethodException {
+        for (String getter : Arrays.asList("getVersion", "getPlatform", "getTypes", "getRepository", "getModules",
+                "isInstallDependencies", "getCpuFeatures")) {
+            assertNotNull(getter, InstallOpenCv.class.getMethod(getter).getAnnotation(Input.class));
+        }
+        assertNotNull(InstallOpenCv.class.getMethod("getInstallDir").getAnnotation(OutputDirectory.class));
+    }
+
+    @Test
+    public void testSharedSettingConflict() throws Exception {
+        Project root = project(temp.newFolder("root"), null);
+        OpenCvExtension rootOpenCv = root.getExtensions().getByType(OpenCvExtension.class);
+        rootOpenCv.setVersion("3.1.0");
+        rootOpenCv.platforms("linux-x86_64");
+        rootOpenCv.setRepository("http://localhost:8081/maven");
+        evaluate(root);
+
+        Project sub = project(temp.newFolder("sub"), root);
+        OpenCvExtension subOpenCv = sub.getExtensions().getByType(OpenCvExtension.class);
+        subOpenCv.setVersion("3.1.0");
+        subOpenCv.platforms("linux-x86_64");
+        subOpenCv.setRepository("http://localhost:8082/maven");
+        try {
+            evaluate(sub);
+            fail("Projects with different repositories should not be allowed");
+        } catch (GradleException e) {
+            assertTrue(rootCause(e).getMessage(), rootCause(e).getMessage().contains("conflicts with"));
+        }
+    }
+
+    @Test
+    public void testPlatformsListedAreNotDetected() {
+        // The host can't be detected, which doesn't matter as long as the platforms are listed
+        System.setProperty("os.arch", "sparc");
+        Project project = project(temp.getRoot(), null);
+        OpenCvExtension opencv = project.getExtensions().getByType(OpenCvExtension.class);
+        opencv.setVersion("3.1.0");
+        opencv.platforms("linux-x86_64", "linux-armhf");
+        evaluate(project);
+        assertNotNull(project.getTasks().findByName("installOpenCvLinuxX86_64"));
+        assertNotNull(project.getTasks().findByName("installOpenCvLinuxArmhf"));
+    }
+
+    @Test
+    public void testHostDetectedWithoutPlatforms() {
+        System.setProperty("os.arch", "sparc");
+        Project project = project(temp.getRoot(), null);
+        project.getExtensions().getByType(OpenCvExtension.class).setVersion("3.1.0");
+        try {
+            evaluate(project);
+            fail("The unsupported host should have been detected");
+        } catch (GradleException e) {
+            assertTrue(rootCause(e).getMessage(), rootCause(e).getMessage().contains("opencv.platforms"));
+        }
+    }
+
+    private static Project project(File dir, Project parent) {
+        ProjectBuilder builder = ProjectBuilder.builder().withProjectDir(dir).withName(dir.getName());
+        if (parent != null) {
+            builder.withParent(parent);
+        }
+        Project project = builder.build();
+        project.getPluginManager().apply(OpenCvInstallerPlugin.class);
+        return project;
+    }
+
+    /**
+     * Runs the plugin's afterEvaluate hook, which creates the install tasks.
+     */
+    private static void evaluate(Project project) {
+        ((ProjectInternal) project).evaluate();
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+}
@@ -0,0 +1,111 @@
+package edu.wpi.first.wpilib.opencv.installer.harness;
+
+import edu.wpi.first.wpilib.opencv.installer.copy.CopySummary;
+import edu.wpi.first.wpilib.opencv.installer.copy.TreeCopier;
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackend;
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackends;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the platform thread and virtual thread I/O backends on installs of many small files. This needs to run
+ * from the multi-release jar on Java 21 or newer to see the virtual thread backend; on older JVMs both runs use
+ * platform threads.
+ *
+ * <p>Two measurements are taken for each backend: placing a generated tree of small files with a {@link TreeCopier}
+ * in this JVM, and a full install of many-small-file artifacts from a {@link MavenStandInServer}.</p>
+ *
+ * <p>Usage: {@code BackendBenchmark <output-dir> [file-count]}</p>
+ */
+public final class BackendBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int FILE_SIZE = 2 * 1024;
+    private static final int PARALLELISM = 8;
+
+    private BackendBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path outputDir = Paths.get(args.length > 0 ? args[0] : "build/backend-benchmark").toAbsolutePath();
+        int fileCount = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        IoBackend platform = IoBackends.platformThreads();
+        IoBackend preferred = IoBackends.preferred();
+        System.out.println("Java " + System.getProperty("java.version") + ", preferred backend: " + preferred.getName());
+        if (preferred == platform) {
+            System.out.println("The virtual thread backend needs Java 21 and the multi-release jar; "
+                    + "both runs will use platform threads");
+        }
+
+        Path source = outputDir.resolve("source");
+        deleteRecursively(outputDir);
+        generateTree(source, fileCount);
+        for (IoBackend backend : Arrays.asList(platform, preferred)) {
+            List<Long> times = new ArrayList<>();
+            PrintStream out = System.out;
+            for (int round = 0; round < ROUNDS; round++) {
+                Path dst = outputDir.resolve("placed");
+                deleteRecursively(dst);
+                // The copier logs every file; don't measure the console
+                System.setOut(new PrintStream(new ByteArrayOutputStream()));
+                CopySummary summary;
+                try {
+                    summary = new TreeCopier(true, PARALLELISM, backend).copy(source, dst);
+                } finally {
+                    System.setOut(out);
+                }
+                summary.throwIfFailed();
+                times.add(TimeUnit.NANOSECONDS.toMillis(summary.getElapsedNanos()));
+            }
+            Collections.sort(times);
+            System.out.printf("Placement of %d files with %s: median %d ms, best %d ms%n",
+                    fileCount, backend.getName(), times.get(times.size() / 2), times.get(0));
+        }
+
+        Scenario scenario = Scenario.named("many-small-files")
+                .artifactSize(fileCount * FILE_SIZE)
+                .entryCount(fileCount)
+                .clients(2);
+        ScenarioResult platformResult = LoadHarness.run(scenario, outputDir.resolve("install-platform"),
+                Collections.singletonList("-D" + IoBackends.BACKEND_PROPERTY + "=platform"));
+        ScenarioResult preferredResult = LoadHarness.run(scenario, outputDir.resolve("install-preferred"),
+                Collections.emptyList());
+        System.out.println("Install with " + platform.getName() + ": " + platformResult);
+        System.out.println("Install with " + preferred.getName() + ": " + preferredResult);
+        if (!platformResult.getFailures().isEmpty() || !preferredResult.getFailures().isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static void generateTree(Path root, int fileCount) throws Exception {
+        Random random = new Random(0);
+        byte[] data = new byte[FILE_SIZE];
+        for (int i = 0; i < fileCount; i++) {
+            Path file = root.resolve("module" + (i % 16)).resolve("sub" + (i % 4)).resolve("file" + i + ".hpp");
+            Files.createDirectories(file.getParent());
+            random.nextBytes(data);
+            Files.write(file, data);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws Exception {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Collections.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+}
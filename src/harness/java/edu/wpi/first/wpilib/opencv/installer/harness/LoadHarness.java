@@ -0,0 +1,306 @@
+package edu.wpi.first.wpilib.opencv.installer.harness;
+
+import edu.wpi.first.wpilib.opencv.installer.MainCLI;
+import edu.wpi.first.wpilib.opencv.installer.util.Hashes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Runs end-to-end installs against a {@link MavenStandInServer} for a set of scenarios and records the latency and
+ * throughput of each one. Every client is a separate JVM running {@link MainCLI} with its own home directory and
+ * local maven repository, just like several machines installing at once.
+ *
+ * <p>The harness exits with a non-zero status if any install is incomplete, if an installed file doesn't match what
+ * the server served, or if the install throughput of a scenario falls too far below the baseline given by the
+ * {@code harness.baseline} system property. The {@code harness.scenarios} system property limits the run to the
+ * scenarios with the given comma-separated names.</p>
+ *
+ * <p>Usage: {@code LoadHarness <output-dir>}</p>
+ */
+public final class LoadHarness {
+
+    private static final String VERSION = "3.1.0";
+    static final String PLATFORM = "linux-x86_64";
+    private static final long CLIENT_TIMEOUT_SECONDS = 300;
+
+    /**
+     * The directory each artifact is installed into by the clients, relative to the client's install tree.
+     */
+    private static final Map<String, String> INSTALL_DIRS = new HashMap<>();
+
+    static {
+        INSTALL_DIRS.put("opencv-java", "java/");
+        INSTALL_DIRS.put("opencv-jni", "jni/");
+        INSTALL_DIRS.put("opencv-headers", "include/");
+        INSTALL_DIRS.put("opencv-natives", "lib/");
+    }
+
+    /**
+     * The fraction of the baseline throughput a scenario may lose before it counts as a regression.
+     */
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("harness.tolerance", "0.25"));
+
+    private LoadHarness() {
+    }
+
+    /**
+     * The scenarios that are run by default.
+     */
+    static List<Scenario> defaultScenarios() {
+        return Arrays.asList(
+                Scenario.named("baseline"),
+                Scenario.named("high-latency").latencyMillis(150).clients(4),
+                Scenario.named("bandwidth-capped").artifactSize(512 * 1024).bandwidth(1 << 20).clients(2),
+                Scenario.named("dropped-connections").dropRate(0.1).clients(2),
+                Scenario.named("many-small-files").artifactSize(2 << 20).entryCount(2000),
+                Scenario.named("repacked").repacked(true),
+                Scenario.named("cpu-variants").variants("avx2"),
+                Scenario.named("concurrent-clients").artifactSize(256 * 1024).clients(8)
+        );
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path outputDir = Paths.get(args.length > 0 ? args[0] : "build/load-test").toAbsolutePath();
+        Files.createDirectories(outputDir);
+        Properties baseline = new Properties();
+        String baselineFile = System.getProperty("harness.baseline");
+        if (baselineFile != null && Files.exists(Paths.get(baselineFile))) {
+            try (InputStream in = Files.newInputStream(Paths.get(baselineFile))) {
+                baseline.load(in);
+            }
+        }
+
+        Properties results = new Properties();
+        List<String> failures = new ArrayList<>();
+        String only = System.getProperty("harness.scenarios");
+        List<Scenario> scenarios = new ArrayList<>(defaultScenarios());
+        if (only != null) {
+            List<String> names = Arrays.asList(only.split(","));
+            scenarios.removeIf(s -> !names.contains(s.getName()));
+        }
+        for (Scenario scenario : scenarios) {
+            System.out.println("Running " + scenario);
+            ScenarioResult result = run(scenario, outputDir.resolve(scenario.getName()), Collections.emptyList());
+            System.out.println("  " + result);
+            result.store(results);
+            failures.addAll(result.getFailures());
+            String expected = baseline.getProperty(scenario.getName() + ".throughput");
+            if (expected != null && result.getThroughput() < Double.parseDouble(expected) * (1 - TOLERANCE)) {
+                failures.add(String.format("%s: throughput regressed from %s to %.0f bytes/s",
+                        scenario.getName(), expected, result.getThroughput()));
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(outputDir.resolve("results.properties"))) {
+            results.store(out, "opencv-installer load test results");
+        }
+        System.out.println("Wrote results to " + outputDir.resolve("results.properties"));
+        if (!failures.isEmpty()) {
+            failures.forEach(f -> System.err.println("FAILED: " + f));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a single scenario.
+     *
+     * @param scenario the scenario to run
+     * @param workDir  the directory to put client home directories, install trees, and logs in
+     * @param jvmArgs  extra arguments for the client JVMs, e.g. system properties
+     */
+    static ScenarioResult run(Scenario scenario, Path workDir, List<String> jvmArgs) throws Exception {
+        deleteRecursively(workDir);
+        Files.createDirectories(workDir);
+        List<String> failures = new ArrayList<>();
+        try (MavenStandInServer server = new MavenStandInServer(scenario)) {
+            ExecutorService executor = Executors.newFixedThreadPool(scenario.getClients());
+            List<Future<Long>> clients = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < scenario.getClients(); i++) {
+                Path clientDir = workDir.resolve("client-" + i);
+                clients.add(executor.submit(() -> runClient(scenario, server.getUrl(), clientDir, jvmArgs)));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (int i = 0; i < clients.size(); i++) {
+                latencies.add(clients.get(i).get());
+                long installed = countFiles(workDir.resolve("client-" + i).resolve("install"));
+                long expected = 1 + 3L * scenario.getEntryCount();
+                if (installed != expected) {
+                    failures.add(String.format("%s: client %d installed %d of %d files (see %s)",
+                            scenario.getName(), i, installed, expected, workDir.resolve("client-" + i + ".log")));
+                }
+                for (String mismatch : verify(server, workDir.resolve("client-" + i))) {
+                    failures.add(String.format("%s: client %d %s", scenario.getName(), i, mismatch));
+                }
+            }
+            for (String feature : scenario.getVariants()) {
+                String suffix = "-" + PLATFORM + "-" + feature + ".jar";
+                if (server.getArtifacts().keySet().stream().noneMatch(path -> path.endsWith(suffix))) {
+                    failures.add(String.format("%s: no client downloaded the %s builds", scenario.getName(), feature));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+            Collections.sort(latencies);
+            long payload = 4L * scenario.getArtifactSize() * scenario.getClients();
+            return new ScenarioResult(scenario, latencies, elapsed, payload, server.getBytesServed(),
+                    server.getRequests(), server.getDropped(), failures);
+        }
+    }
+
+    /**
+     * Runs one installer in a new JVM and waits for it to finish.
+     *
+     * @return the time taken by the installer, in nanoseconds
+     */
+    private static long runClient(Scenario scenario, String repositoryUrl, Path clientDir, List<String> jvmArgs)
+            throws IOException, InterruptedException {
+        Files.createDirectories(clientDir.resolve("home"));
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Duser.home=" + clientDir.resolve("home"));
+        command.addAll(jvmArgs);
+        command.addAll(Arrays.asList(
+                "-cp", absoluteClassPath(),
+                MainCLI.class.getName(),
+                "--version", VERSION,
+                "--platform", PLATFORM,
+                "--repository", repositoryUrl,
+                "--java", "java",
+                "--jni", "jni",
+                "--headers", "include",
+                "--natives", "lib"
+        ));
+        if (!scenario.getVariants().isEmpty()) {
+            // Ask for the published variants, so picking them doesn't depend on the CPU running the harness
+            command.add("--cpu-features");
+            command.add(String.join(",", scenario.getVariants()));
+        }
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(clientDir.toFile());
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(new File(clientDir + ".log"));
+        long start = System.nanoTime();
+        Process process = builder.start();
+        if (!process.waitFor(CLIENT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("Installer timed out in " + clientDir);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Gets the class path of this JVM with every entry made absolute, since clients run in their own directories.
+     */
+    private static String absoluteClassPath() {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            entries.add(Paths.get(entry).toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    /**
+     * Checks the hashes of the files a client installed against the jars the server handed out, so an install that
+     * has every file but corrupts some of them still fails.
+     *
+     * @return a description of every installed file that doesn't match what was served
+     */
+    private static List<String> verify(MavenStandInServer server, Path clientDir) throws IOException {
+        // Several variants of an artifact may have been served, so a file may match any of them
+        Map<String, Set<String>> expected = new HashMap<>();
+        for (Map.Entry<String, byte[]> artifact : server.getArtifacts().entrySet()) {
+            String path = artifact.getKey();
+            if (!path.endsWith(".jar")) {
+                continue;
+            }
+            String artifactId = path.split("/")[3];
+            String installDir = INSTALL_DIRS.get(artifactId);
+            if (artifactId.equals("opencv-java")) {
+                // The Java library is installed as the jar itself
+                expected.computeIfAbsent(installDir + path.substring(path.lastIndexOf('/') + 1), k -> new HashSet<>())
+                        .add(sha256(artifact.getValue()));
+                continue;
+            }
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(artifact.getValue()))) {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    ByteArrayOutputStream data = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    for (int n = zip.read(buffer); n >= 0; n = zip.read(buffer)) {
+                        data.write(buffer, 0, n);
+                    }
+                    expected.computeIfAbsent(installDir + entry.getName(), k -> new HashSet<>())
+                            .add(sha256(data.toByteArray()));
+                }
+            }
+        }
+
+        // Installs are nested under "install" followed by the absolute path they were asked for
+        Path root = clientDir.resolve("install").resolve(clientDir.getRoot().relativize(clientDir).toString());
+        List<String> mismatches = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return mismatches;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+            Set<String> hashes = expected.get(name);
+            if (hashes == null) {
+                mismatches.add("installed " + name + ", which was not served");
+            } else if (!hashes.contains(Hashes.sha256(file))) {
+                mismatches.add("installed " + name + " with different contents than were served");
+            }
+        }
+        return mismatches;
+    }
+
+    private static String sha256(byte[] data) {
+        return Hashes.toHex(Hashes.newSha256().digest(data));
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Collections.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package edu.wpi.first.wpilib.opencv.installer.harness;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.wpi.first.wpilib.opencv.installer.archive.Repacker;
+import edu.wpi.first.wpilib.opencv.installer.download.BandwidthLimiter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A local HTTP server laid out like a maven repository that serves synthetic {@code org.opencv} artifacts for any
+ * version. Platform-specific artifacts are only published for the harness platform and the CPU variants the scenario
+ * asks for, like a real repository, so installers probing for other builds get a 404. Artifacts are generated on
+ * first request from a fixed seed, so every client sees the same bytes for the same path. Repacked companions of the
+ * jars are served only if the scenario asks for them.
+ */
+public final class MavenStandInServer implements Closeable {
+
+    private static final Pattern ARTIFACT_PATH =
+            Pattern.compile("^/org/opencv/(opencv-[a-z]+)/([^/]+)/\\1-\\2(-[^/]+)?\\.(jar|pom|ocvpack)$");
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final Scenario scenario;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final BandwidthLimiter limiter;
+    private final Set<String> classifiers = new HashSet<>();
+    private final Map<String, byte[]> artifacts = new ConcurrentHashMap<>();
+    private final Random dropper = new Random(0);
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Starts a server on a free port on the loopback interface.
+     *
+     * @param scenario the scenario describing the artifacts and network conditions
+     *
+     * @throws IOException if the server could not be started
+     */
+    public MavenStandInServer(Scenario scenario) throws IOException {
+        this.scenario = scenario;
+        classifiers.add(LoadHarness.PLATFORM);
+        for (String feature : scenario.getVariants()) {
+            classifiers.add(LoadHarness.PLATFORM + '-' + feature);
+        }
+        this.limiter = new BandwidthLimiter(scenario.getBandwidth());
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "maven-stand-in");
+            t.setDaemon(true);
+            return t;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Gets the URL of the root of the repository.
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the number of bytes of artifacts and POMs written to clients, including those in dropped responses.
+     */
+    public long getBytesServed() {
+        return bytesServed.get();
+    }
+
+    /**
+     * Gets the number of requests received.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of responses that were cut off on purpose.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets every artifact generated so far, keyed by its path in the repository. Clients that asked for one of these
+     * paths were served exactly these bytes.
+     */
+    public Map<String, byte[]> getArtifacts() {
+        return Collections.unmodifiableMap(artifacts);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            String path = exchange.getRequestURI().getPath();
+            Matcher m = ARTIFACT_PATH.matcher(path);
+            if (!m.matches() || !isPublished(m.group(3)) || (m.group(4).equals("ocvpack") && !scenario.isRepacked())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (scenario.getLatencyMillis() > 0) {
+                TimeUnit.MILLISECONDS.sleep(scenario.getLatencyMillis());
+            }
+            byte[] body = artifact(path, m);
+            boolean drop;
+            synchronized (dropper) {
+                drop = dropper.nextDouble() < scenario.getDropRate();
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            int end = drop ? body.length / 2 : body.length;
+            OutputStream out = exchange.getResponseBody();
+            for (int off = 0; off < end; off += CHUNK_SIZE) {
+                int n = Math.min(CHUNK_SIZE, end - off);
+                limiter.acquire(n);
+                out.write(body, off, n);
+                bytesServed.addAndGet(n);
+            }
+            if (drop) {
+                // Closing a fixed-length response early makes the server drop the connection
+                dropped.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Expected when dropping a response or when the client hangs up
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Checks if artifacts with a classifier are published.
+     *
+     * @param suffix the classifier preceded by a '-', or {@code null} for artifacts without a classifier
+     */
+    private boolean isPublished(String suffix) {
+        return suffix == null || classifiers.contains(suffix.substring(1));
+    }
+
+    private byte[] artifact(String path, Matcher m) {
+        switch (m.group(4)) {
+            case "pom":
+                return artifacts.computeIfAbsent(path, p -> pom(m.group(1), m.group(2)));
+            case "ocvpack":
+                // Repack the same jar that's served for the .jar path
+                String jarPath = path.substring(0, path.length() - "ocvpack".length()) + "jar";
+                byte[] jar = artifacts.computeIfAbsent(jarPath, p -> jar(m.group(1), p.hashCode()));
+                return artifacts.computeIfAbsent(path, p -> repack(jar));
+            default:
+                return artifacts.computeIfAbsent(path, p -> jar(m.group(1), p.hashCode()));
+        }
+    }
+
+    private static byte[] repack(byte[] jar) {
+        try {
+            Path jarFile = Files.createTempFile("stand-in", ".jar");
+            Path packed = Files.createTempFile("stand-in", ".ocvpack");
+            try {
+                Files.write(jarFile, jar);
+                Repacker.repack(jarFile, packed);
+                return Files.readAllBytes(packed);
+            } finally {
+                Files.deleteIfExists(jarFile);
+                Files.deleteIfExists(packed);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not repack artifact", e);
+        }
+    }
+
+    private static byte[] pom(String artifactId, String version) {
+        return String.format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">%n"
+                + "  <modelVersion>4.0.0</modelVersion>%n"
+                + "  <groupId>org.opencv</groupId>%n"
+                + "  <artifactId>%s</artifactId>%n"
+                + "  <version>%s</version>%n"
+                + "</project>%n", artifactId, version).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] jar(String artifactId, long seed) {
+        int count = Math.max(1, scenario.getEntryCount());
+        int entrySize = scenario.getArtifactSize() / count;
+        Random random = new Random(seed);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(scenario.getArtifactSize() + count * 128);
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            byte[] data = new byte[entrySize];
+            for (int i = 0; i < count; i++) {
+                zip.putNextEntry(new ZipEntry(entryName(artifactId, i)));
+                // Random data doesn't compress, so the jar is about as large as the scenario asks for
+                random.nextBytes(data);
+                zip.write(data);
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not generate artifact", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Gets the name of an entry in a synthetic artifact. Entries are spread over a few directories like the real
+     * artifacts are.
+     */
+    static String entryName(String artifactId, int index) {
+        switch (artifactId) {
+            case "opencv-java":
+                return "org/opencv/module" + (index % 8) + "/Class" + index + ".class";
+            case "opencv-headers":
+                return "opencv2/module" + (index % 8) + "/header" + index + ".hpp";
+            default:
+                return "libopencv_module" + index + ".so";
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,149 @@
+package edu.wpi.first.wpilib.opencv.installer.harness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes the artifacts served by a {@link MavenStandInServer}, the network conditions it simulates, and how many
+ * installers run against it at once.
+ */
+public final class Scenario {
+
+    private final String name;
+    private int artifactSize = 1 << 20;
+    private int entryCount = 32;
+    private long latencyMillis = 0;
+    private long bandwidth = 0;
+    private double dropRate = 0;
+    private int clients = 1;
+    private boolean repacked = false;
+    private List<String> variants = new ArrayList<>();
+
+    private Scenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a scenario with 1MiB artifacts of 32 entries each, served to one client over a perfect network.
+     *
+     * @param name the name of the scenario, used in reports
+     */
+    public static Scenario named(String name) {
+        return new Scenario(name);
+    }
+
+    /**
+     * Sets the total uncompressed size of the entries in each artifact.
+     */
+    public Scenario artifactSize(int bytes) {
+        this.artifactSize = bytes;
+        return this;
+    }
+
+    /**
+     * Sets the number of files in each artifact.
+     */
+    public Scenario entryCount(int count) {
+        this.entryCount = count;
+        return this;
+    }
+
+    /**
+     * Sets the delay before the server starts responding to each request.
+     */
+    public Scenario latencyMillis(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Sets the combined rate at which the server sends data to every client, or zero for no limit.
+     */
+    public Scenario bandwidth(long bytesPerSecond) {
+        this.bandwidth = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of responses that the server cuts off half way through.
+     */
+    public Scenario dropRate(double rate) {
+        this.dropRate = rate;
+        return this;
+    }
+
+    /**
+     * Sets the number of installers to run at the same time.
+     */
+    public Scenario clients(int count) {
+        this.clients = count;
+        return this;
+    }
+
+    /**
+     * Serves a repacked companion next to every artifact jar, as written by the {@code repack} command.
+     */
+    public Scenario repacked(boolean repacked) {
+        this.repacked = repacked;
+        return this;
+    }
+
+    /**
+     * Publishes builds of the platform-specific artifacts for the given CPU features next to the baseline builds,
+     * e.g. "avx2" for "linux-x86_64-avx2". By default only the baseline builds are published.
+     */
+    public Scenario variants(String... features) {
+        this.variants = new ArrayList<>(Arrays.asList(features));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getArtifactSize() {
+        return artifactSize;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getBandwidth() {
+        return bandwidth;
+    }
+
+    public double getDropRate() {
+        return dropRate;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public boolean isRepacked() {
+        return repacked;
+    }
+
+    /**
+     * The CPU features that platform-specific artifacts have builds for besides the baseline build.
+     */
+    public List<String> getVariants() {
+        return Collections.unmodifiableList(variants);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d clients, %d KiB x %d entries, %d ms latency, %s, %.0f%% dropped%s%s)",
+                name, clients, artifactSize / 1024, entryCount, latencyMillis,
+                bandwidth > 0 ? bandwidth / 1024 + " KiB/s" : "unlimited", dropRate * 100,
+                repacked ? ", repacked" : "", variants.isEmpty() ? "" : ", variants " + variants);
+    }
+
+}
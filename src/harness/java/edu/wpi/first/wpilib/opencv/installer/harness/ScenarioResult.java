@@ -0,0 +1,82 @@
+package edu.wpi.first.wpilib.opencv.installer.harness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measurements taken while running a {@link Scenario}.
+ */
+public final class ScenarioResult {
+
+    private final Scenario scenario;
+    private final List<Long> latencies;
+    private final long elapsedNanos;
+    private final long payloadBytes;
+    private final long bytesServed;
+    private final long requests;
+    private final long dropped;
+    private final List<String> failures;
+
+    /**
+     * @param latencies    the time taken by each client in nanoseconds, sorted from shortest to longest
+     * @param elapsedNanos the time from starting the first client to the last client finishing
+     * @param payloadBytes the number of bytes of artifact contents installed by every client together
+     */
+    ScenarioResult(Scenario scenario, List<Long> latencies, long elapsedNanos, long payloadBytes,
+                   long bytesServed, long requests, long dropped, List<String> failures) {
+        this.scenario = scenario;
+        this.latencies = new ArrayList<>(latencies);
+        this.elapsedNanos = elapsedNanos;
+        this.payloadBytes = payloadBytes;
+        this.bytesServed = bytesServed;
+        this.requests = requests;
+        this.dropped = dropped;
+        this.failures = new ArrayList<>(failures);
+    }
+
+    /**
+     * Gets the install throughput of every client together, in bytes of artifact contents per second.
+     */
+    public double getThroughput() {
+        return payloadBytes / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Gets the given percentile of client install times, in milliseconds.
+     */
+    public long getLatencyPercentile(double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * latencies.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(latencies.get(Math.max(0, Math.min(index, latencies.size() - 1))));
+    }
+
+    /**
+     * Gets a description of every problem found while running the scenario.
+     */
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Adds the measurements to a set of properties, prefixed by the name of the scenario.
+     */
+    public void store(Properties properties) {
+        String prefix = scenario.getName() + '.';
+        properties.setProperty(prefix + "throughput", String.format("%.0f", getThroughput()));
+        properties.setProperty(prefix + "latency.p50", Long.toString(getLatencyPercentile(50)));
+        properties.setProperty(prefix + "latency.p95", Long.toString(getLatencyPercentile(95)));
+        properties.setProperty(prefix + "latency.max", Long.toString(getLatencyPercentile(100)));
+        properties.setProperty(prefix + "bytesServed", Long.toString(bytesServed));
+        properties.setProperty(prefix + "requests", Long.toString(requests));
+        properties.setProperty(prefix + "dropped", Long.toString(dropped));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f KiB/s, latency p50 %d ms / p95 %d ms / max %d ms, %d requests (%d dropped), %d failures",
+                getThroughput() / 1024, getLatencyPercentile(50), getLatencyPercentile(95),
+                getLatencyPercentile(100), requests, dropped, failures.size());
+    }
+
+}
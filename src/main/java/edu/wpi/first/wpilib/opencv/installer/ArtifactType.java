@@ -10,22 +10,32 @@ public enum ArtifactType {
     /**
      * The artifact type for the Java library.
      */
-    JAVA("Java library"),
+    JAVA("Java library", "opencv-java", false),
 
     /**
      * The artifact type for the JNI bindings.
      */
-    JNI("JNI bindings"),
+    JNI("JNI bindings", "opencv-jni", true),
 
     /**
      * The artifact type for the C++ headers.
      */
-    HEADERS("C++ headers"),
+    HEADERS("C++ headers", "opencv-headers", false),
 
     /**
      * The artifact type for the C++ native libraries.
      */
-    NATIVES("C++ native libraries");
+    NATIVES("C++ native libraries", "opencv-natives", true);
 
     private final String artifactName;
+
+    /**
+     * The maven artifact ID of artifacts of this type.
+     */
+    private final String artifactId;
+
+    /**
+     * Whether artifacts of this type are built per-platform and use the platform name as their classifier.
+     */
+    private final boolean platformSpecific;
 }
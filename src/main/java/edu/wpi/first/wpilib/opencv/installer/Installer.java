@@ -1,18 +1,59 @@
 package edu.wpi.first.wpilib.opencv.installer;
 
+import edu.wpi.first.wpilib.opencv.installer.archive.ArchiveEntry;
+import edu.wpi.first.wpilib.opencv.installer.archive.IndexedArchive;
+import edu.wpi.first.wpilib.opencv.installer.archive.IndexedArchiveWriter;
+import edu.wpi.first.wpilib.opencv.installer.archive.Repacker;
+import edu.wpi.first.wpilib.opencv.installer.cache.ExtractionCache;
+import edu.wpi.first.wpilib.opencv.installer.cache.SharedFiles;
+import edu.wpi.first.wpilib.opencv.installer.copy.ArchivePlacer;
+import edu.wpi.first.wpilib.opencv.installer.copy.CopySummary;
+import edu.wpi.first.wpilib.opencv.installer.copy.TreeCopier;
+import edu.wpi.first.wpilib.opencv.installer.deps.Dependency;
+import edu.wpi.first.wpilib.opencv.installer.deps.DependencyGraph;
+import edu.wpi.first.wpilib.opencv.installer.deps.DependencyResolver;
+import edu.wpi.first.wpilib.opencv.installer.download.Downloader;
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackend;
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackends;
+import edu.wpi.first.wpilib.opencv.installer.lock.LockedArtifact;
+import edu.wpi.first.wpilib.opencv.installer.lock.Lockfile;
+import edu.wpi.first.wpilib.opencv.installer.modules.ModuleSelection;
+import edu.wpi.first.wpilib.opencv.installer.modules.ModuleSelector;
 import edu.wpi.first.wpilib.opencv.installer.platform.Platform;
+import edu.wpi.first.wpilib.opencv.installer.util.Hashes;
 
 import lombok.experimental.UtilityClass;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -26,11 +67,32 @@ import java.util.zip.ZipInputStream;
 public class Installer {
 
     private static final String userHome = System.getProperty("user.home");
-    private static final String mavenUrl = "https://first.wpi.edu/FRC/roborio/maven/development";
+    private static String mavenUrl = "https://first.wpi.edu/FRC/roborio/maven/development";
     private static final String mavenLocal = userHome + "/.m2/repository";
+    private static final String cacheDir = userHome + "/.opencv-installer";
     private static final Path tmpDir;
     private static final Path unzippedDir;
     private static boolean overwrite = false;
+    private static long maxBandwidth = 0;
+    private static int maxTransfers = 4;
+    private static Downloader downloader = null;
+    private static IndexedArchive bundle = null;
+    private static Lockfile lockfile = null;
+    private static List<String> modules = new ArrayList<>();
+    private static long cacheSize = 1L << 30;
+    private static ExtractionCache extractionCache = null;
+    private static final IoBackend ioBackend = IoBackends.preferred();
+    private static final int maxBufferedEntry = 4 * 1024 * 1024;
+    private static final int copyThreads = Math.min(8, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private static final String packedExtension = ".ocvpack";
+    private static final Set<String> missingPacked = ConcurrentHashMap.newKeySet();
+    private static boolean installDependencies = true;
+    private static final Map<String, DependencyGraph> dependencyGraphs = new ConcurrentHashMap<>();
+    private static List<String> cpuFeatures = null;
+    private static final Map<String, String> classifiers = new ConcurrentHashMap<>();
+    private static final String missingExtension = ".missing";
+    private static final long missingVariantTtl = TimeUnit.DAYS.toMillis(1);
+    private static volatile boolean remoteUnreachable = false;
 
     static {
         try {
@@ -41,20 +103,16 @@ public class Installer {
         }
     }
 
-    private static Platform platform = PlatformDetector.getPlatform();
+    private static Platform platform = null;
     private static boolean overridePlatform = false;
     private static final String groupId = "org.opencv";
-    private static final String javaJarName = "opencv-java";
-    private static final String jniName = "opencv-jni";
-    private static final String headersName = "opencv-headers";
-    private static final String nativesName = "opencv-natives";
     private static String openCvVersion = "";
 
     /**
      * Sets a specific platform to install. Artifacts will be downloaded into the working directory and will need to be
      * manually installed.
      *
-     * <p><strong>The platform is auto-detected when this class is loaded</strong>; this method should only be used
+     * <p><strong>The platform is auto-detected the first time it's needed</strong>; this method should only be used
      * when downloading artifacts for a different operating system or architecture.</p>
      *
      * @param p the platform to get the artifacts for
@@ -69,9 +127,12 @@ public class Installer {
      * running on, unless it's been overridden by {@link #setPlatform(Platform)}.
      *
      * @return the current platform
+     *
+     * @throws UnsupportedOperatingSystemError if no platform was set and the installer is running on an unsupported
+     *                                         platform
      */
     public static Platform getPlatform() {
-        return platform;
+        return platform != null ? platform : PlatformDetector.getPlatform();
     }
 
     /**
@@ -92,6 +153,25 @@ public class Installer {
         return openCvVersion;
     }
 
+    /**
+     * Sets the URL of the maven repository to download artifacts from. Defaults to the FRC maven repository.
+     *
+     * @param url the URL of the root of the maven repository
+     */
+    public static void setRepositoryUrl(String url) {
+        mavenUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        remoteUnreachable = false;
+    }
+
+    /**
+     * Gets the URL of the maven repository artifacts are downloaded from.
+     *
+     * @return the URL of the root of the maven repository, without a trailing '/'
+     */
+    public static String getRepositoryUrl() {
+        return mavenUrl;
+    }
+
     /**
      * Overwrites existing files when installing.
      */
@@ -99,6 +179,398 @@ public class Installer {
         overwrite = true;
     }
 
+    /**
+     * Limits the combined download rate of every transfer in this run.
+     *
+     * @param bytesPerSecond the maximum number of bytes per second to download, or zero for no limit
+     */
+    public static void setMaxBandwidth(long bytesPerSecond) {
+        maxBandwidth = bytesPerSecond;
+        downloader = null;
+    }
+
+    /**
+     * Sets the maximum number of downloads to run at once. The actual number of concurrent downloads is adjusted
+     * between one and this maximum based on the observed throughput and error rate.
+     *
+     * @param max the maximum number of concurrent downloads
+     */
+    public static void setMaxTransfers(int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("Must allow at least one transfer, but was " + max);
+        }
+        maxTransfers = max;
+        downloader = null;
+    }
+
+    /**
+     * Only installs the JNI and native libraries needed by the given OpenCV modules. The libraries each module
+     * depends on are found by reading their ELF dynamic sections, so this only has an effect on Linux artifacts.
+     *
+     * @param moduleNames the names of the modules to install, e.g. "core", "imgproc", "videoio". If empty, every
+     *                    module is installed
+     */
+    public static void setModules(Collection<String> moduleNames) {
+        modules = new ArrayList<>(moduleNames);
+        Collections.sort(modules);
+    }
+
+    /**
+     * Sets the size budget of the cache of extracted artifacts, which lets artifacts that were installed before be
+     * installed again without unzipping them. The least recently used artifacts are removed from the cache when it
+     * grows past this size.
+     *
+     * @param bytes the maximum size of the cache, or zero to disable the cache
+     */
+    public static void setCacheSize(long bytes) {
+        cacheSize = bytes;
+        extractionCache = null;
+    }
+
+    /**
+     * Sets whether the dependencies declared in the POMs of installed artifacts are installed along with them. This is
+     * on by default. When installing from a lockfile, the dependencies pinned by the lockfile are installed instead of
+     * resolving them from the POMs, and {@link #writeLockfile} only pins dependencies while this is on.
+     *
+     * @param install true to install dependencies, false to only install the artifacts themselves
+     */
+    public static void setInstallDependencies(boolean install) {
+        installDependencies = install;
+    }
+
+    /**
+     * Sets the CPU features to prefer builds of platform-specific artifacts for, best first. For each feature, the
+     * installer looks for a build classified as the platform name followed by the feature, e.g.
+     * "linux-x86_64-avx2", and falls back to the baseline build if there is none.
+     *
+     * <p>By default, the features of this machine are used when installing for the platform it runs, and baseline
+     * builds are used for every other platform.</p>
+     *
+     * @param features the features to prefer, e.g. "avx2". If empty, only baseline builds are installed
+     */
+    public static void setCpuFeatures(Collection<String> features) {
+        cpuFeatures = Collections.unmodifiableList(new ArrayList<>(features));
+        classifiers.clear();
+    }
+
+    /**
+     * Gets the CPU features to look for builds of when installing for a platform, best first. Unless they were set
+     * with {@link #setCpuFeatures}, these are the features of this machine when installing for the platform it runs,
+     * and none otherwise.
+     *
+     * @param platform the platform to install for
+     *
+     * @return the features, best first. If empty, only baseline builds are installed
+     */
+    public static List<String> getCpuFeatures(Platform platform) {
+        if (cpuFeatures != null) {
+            return cpuFeatures;
+        }
+        try {
+            if (PlatformDetector.getPlatform().name().equals(platform.name())) {
+                return PlatformDetector.getCpuFeatures();
+            }
+        } catch (UnsupportedOperatingSystemError e) {
+            // Installing for a supported platform from an unsupported one
+        }
+        return Collections.emptyList();
+    }
+
+    private static synchronized ExtractionCache getExtractionCache() {
+        if (extractionCache == null) {
+            extractionCache = new ExtractionCache(Paths.get(cacheDir, "extracted"), cacheSize);
+        }
+        return extractionCache;
+    }
+
+    private static synchronized Downloader getDownloader() {
+        if (downloader == null) {
+            downloader = new Downloader(ioBackend, maxBandwidth, maxTransfers);
+        }
+        return downloader;
+    }
+
+    /**
+     * Downloads the artifacts for the given types into the local maven repository, running the downloads in
+     * parallel. Artifacts that are already in the local repository are not downloaded again.
+     *
+     * @param types the types of the artifacts to download
+     *
+     * @throws IOException if any artifact could not be downloaded
+     */
+    public static void prefetch(Collection<ArtifactType> types) throws IOException {
+        ExecutorService executor = ioBackend.newExecutor(maxTransfers);
+        try {
+            List<Future<Path>> downloads = new ArrayList<>();
+            for (ArtifactType type : types) {
+                String artifactId = type.getArtifactId();
+                downloads.add(executor.submit(() -> {
+                    // Picking the build for this CPU may download it, so it runs alongside the other downloads
+                    String classifier = classifierFor(type, openCvVersion, getPlatform());
+                    if (lockfile != null) {
+                        return fetchLocked(artifactId, openCvVersion, classifier);
+                    }
+                    if (usePacked(type)) {
+                        Path packed = fetchPacked(artifactId, openCvVersion, classifier);
+                        if (packed != null || resolveLocal(artifactId, openCvVersion, classifier).exists()) {
+                            return packed;
+                        }
+                    } else if (resolveLocal(artifactId, openCvVersion, classifier).exists()) {
+                        return null;
+                    }
+                    return fetchToMavenLocal(artifactId, openCvVersion, classifier);
+                }));
+            }
+            IOException failure = null;
+            for (Future<Path> download : downloads) {
+                try {
+                    download.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new IOException("Could not download all artifacts", e.getCause());
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while downloading artifacts", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Uses an offline bundle as the source of artifacts that aren't in the local maven repository. Only the
+     * artifacts that are needed are read from the bundle. Artifacts that aren't in the bundle are still downloaded.
+     *
+     * @param bundleFile the bundle to use, as written by {@link #exportBundle}
+     *
+     * @throws IOException if the bundle could not be opened
+     */
+    public static void setBundle(Path bundleFile) throws IOException {
+        if (bundle != null) {
+            bundle.close();
+        }
+        bundle = IndexedArchive.open(bundleFile);
+    }
+
+    /**
+     * Writes a bundle holding the artifacts for every combination of the given versions, platforms, and artifact
+     * types, along with their dependencies unless {@link #setInstallDependencies installing dependencies} is off. The
+     * bundle can be used to install OpenCV on machines without internet access with
+     * {@link #importBundle} or {@link #setBundle}. Artifacts that aren't in the local maven repository are downloaded
+     * first.
+     *
+     * <p>Like lockfiles, bundles always have the baseline builds of platform-specific artifacts, and the builds for
+     * the CPU features set with {@link #setCpuFeatures} as well.</p>
+     *
+     * @param bundleFile the file to write the bundle to
+     * @param versions   the versions of OpenCV to put in the bundle
+     * @param platforms  the platforms to put in the bundle. Artifacts that aren't platform-specific are only added
+     *                   once per version
+     * @param types      the types of artifacts to put in the bundle
+     *
+     * @throws IOException if an artifact could not be found, or if the bundle could not be written
+     */
+    public static void exportBundle(Path bundleFile,
+                                    Collection<String> versions,
+                                    Collection<Platform> platforms,
+                                    Collection<ArtifactType> types) throws IOException {
+        IndexedArchiveWriter writer = new IndexedArchiveWriter();
+        for (String version : versions) {
+            for (ArtifactType type : types) {
+                for (Platform p : platforms) {
+                    String artifactId = type.getArtifactId();
+                    String dir = repositoryDir(artifactId, version);
+                    for (String classifier : exportedClassifiers(type, version, p)) {
+                        File jar = resolveLocal(artifactId, version, classifier);
+                        if (!jar.exists()) {
+                            fetchToMavenLocal(artifactId, version, classifier);
+                        }
+                        writer.add(dir + jar.getName(), jar.toPath());
+                        Path packed = type == ArtifactType.JAVA ? null : fetchPacked(artifactId, version, classifier);
+                        if (packed != null) {
+                            writer.add(dir + packed.getFileName(), packed);
+                        }
+                    }
+                    String pom = String.format("%s-%s.pom", artifactId, version);
+                    writer.add(dir + pom, Paths.get(mavenLocal, dir, pom));
+                    if (installDependencies) {
+                        addDependencies(writer, artifactId, version);
+                    }
+                }
+            }
+        }
+        System.out.println("Writing bundle to " + bundleFile.toAbsolutePath());
+        writer.write(bundleFile);
+    }
+
+    /**
+     * Gets the classifiers of an artifact to put in lockfiles and bundles: the baseline build of platform-specific
+     * artifacts, and the build for the best of the CPU features set with {@link #setCpuFeatures} if there is one.
+     */
+    private static List<String> exportedClassifiers(ArtifactType type, String v, Platform platform) {
+        if (!type.isPlatformSpecific()) {
+            return Collections.singletonList(null);
+        }
+        List<String> exported = new ArrayList<>();
+        exported.add(platform.name());
+        if (cpuFeatures != null) {
+            String variant = classifierFor(type, v, platform);
+            if (!variant.equals(platform.name())) {
+                exported.add(variant);
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Adds the dependencies of an artifact to a bundle, so installs from the bundle don't have to download them. The
+     * POMs of every artifact in the dependency graph are added too, since resolving the graph reads all of them.
+     */
+    private static void addDependencies(IndexedArchiveWriter writer, String artifactId, String version) throws IOException {
+        DependencyGraph graph = dependencyGraph(artifactId, version);
+        for (Dependency artifact : graph.getArtifacts()) {
+            Path pom = fetchPom(artifact);
+            if (pom != null) {
+                writer.add(repositoryDir(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion())
+                        + pom.getFileName(), pom);
+            }
+        }
+        for (Dependency dependency : graph.resolve()) {
+            if (!dependency.getType().equals("pom")) {
+                Path file = fetchDependency(dependency);
+                writer.add(repositoryDir(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion())
+                        + file.getFileName(), file);
+            }
+        }
+    }
+
+    /**
+     * Copies every artifact in a bundle into the local maven repository.
+     *
+     * @param bundleFile the bundle to import, as written by {@link #exportBundle}
+     *
+     * @throws IOException if the bundle could not be read or an artifact could not be written
+     */
+    public static void importBundle(Path bundleFile) throws IOException {
+        try (IndexedArchive archive = IndexedArchive.open(bundleFile)) {
+            // Check every entry before importing anything, so a bad bundle doesn't leave a partial import behind
+            Map<ArchiveEntry, Path> destinations = new LinkedHashMap<>();
+            for (ArchiveEntry entry : archive.getEntries()) {
+                destinations.put(entry, mavenLocalPath(entry.getName()));
+            }
+            for (Map.Entry<ArchiveEntry, Path> entry : destinations.entrySet()) {
+                System.out.println("  Importing " + entry.getKey().getName());
+                SharedFiles.publish(entry.getValue(), f -> false, tmp -> archive.extract(entry.getKey(), tmp));
+            }
+        }
+    }
+
+    /**
+     * Installs exactly the artifacts pinned by a lockfile. Artifacts are fetched from the URLs in the lockfile and
+     * checked against the sizes and hashes in it, without resolving anything against the remote repository.
+     *
+     * @param locked the lockfile to install from, as written by {@link #writeLockfile}
+     */
+    public static void setLockfile(Lockfile locked) {
+        lockfile = locked;
+        // The builds that are available depend on the lockfile
+        classifiers.clear();
+    }
+
+    /**
+     * Writes a lockfile pinning the artifacts for every combination of the given versions, platforms, and artifact
+     * types, along with their dependencies unless {@link #setInstallDependencies installing dependencies} is off.
+     * Artifacts that aren't in the local maven repository are downloaded so their hashes can be computed.
+     *
+     * <p>Platform-specific artifacts are always pinned with their baseline builds, so the lockfile works on every
+     * machine of a platform. The builds for the CPU features set with {@link #setCpuFeatures} are pinned as well;
+     * the features of this machine are not used.</p>
+     *
+     * @param file      the file to write the lockfile to
+     * @param versions  the versions of OpenCV to lock
+     * @param platforms the platforms to lock. Artifacts that aren't platform-specific are only locked once per
+     *                  version
+     * @param types     the types of artifacts to lock
+     *
+     * @throws IOException if an artifact could not be found, or if the lockfile could not be written
+     */
+    public static void writeLockfile(Path file,
+                                     Collection<String> versions,
+                                     Collection<Platform> platforms,
+                                     Collection<ArtifactType> types) throws IOException {
+        Lockfile locked = new Lockfile();
+        for (String version : versions) {
+            for (ArtifactType type : types) {
+                for (Platform p : platforms) {
+                    String artifactId = type.getArtifactId();
+                    for (String classifier : exportedClassifiers(type, version, p)) {
+                        File jar = resolveLocal(artifactId, version, classifier);
+                        if (!jar.exists()) {
+                            fetchToMavenLocal(artifactId, version, classifier);
+                        }
+                        locked.add(new LockedArtifact(artifactId, version, classifier, jar.length(),
+                                Hashes.sha256(jar.toPath()), resolveRemote(artifactId, version, classifier).toString()));
+                    }
+                }
+                if (installDependencies) {
+                    lockDependencies(locked, type.getArtifactId(), version);
+                }
+            }
+        }
+        System.out.println("Writing lockfile to " + file.toAbsolutePath());
+        locked.write(file);
+    }
+
+    /**
+     * Pins the dependencies that would be installed with an OpenCV artifact.
+     */
+    private static void lockDependencies(Lockfile locked, String artifactId, String version) throws IOException {
+        for (Dependency dependency : dependencyGraph(artifactId, version).resolve()) {
+            if (dependency.getType().equals("pom")) {
+                continue;
+            }
+            Path file = fetchDependency(dependency);
+            String dir = repositoryDir(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
+            locked.add(new LockedArtifact(dependency.getArtifactId(), dependency.getVersion(),
+                    dependency.getClassifier(), Files.size(file), Hashes.sha256(file),
+                    mavenUrl + '/' + dir + file.getFileName(), dependency.getGroupId(), artifactId + ':' + version));
+        }
+    }
+
+    /**
+     * Repacks an artifact jar into a companion artifact that installs faster. The companion holds the same files
+     * uncompressed, behind a manifest of their sizes and SHA-256 hashes, so installing it doesn't inflate anything and
+     * places and verifies every file in parallel. Publishing the companion next to the jar in a maven repository
+     * makes installers use it instead of the jar.
+     *
+     * @param jar    the artifact jar to repack, e.g. "opencv-natives-3.1.0-linux-armhf.jar"
+     * @param dstDir the directory to write the companion artifact to
+     *
+     * @return the path to the companion artifact
+     *
+     * @throws IOException if the jar could not be read or the companion could not be written
+     */
+    public static Path repack(Path jar, Path dstDir) throws IOException {
+        String name = jar.getFileName().toString();
+        if (name.endsWith(".jar")) {
+            name = name.substring(0, name.length() - ".jar".length());
+        }
+        Path dst = dstDir.resolve(name + packedExtension);
+        Files.createDirectories(dstDir);
+        System.out.println("Repacking " + jar + " to " + dst);
+        int count = Repacker.repack(jar, dst);
+        System.out.printf("  Repacked %d files (%.1f KiB, %.1f KiB as a jar)%n",
+                count, Files.size(dst) / 1024.0, Files.size(jar) / 1024.0);
+        return dst;
+    }
+
     /**
      * Downloads the Java API jar.
      */
@@ -106,7 +578,7 @@ public class Installer {
         System.out.println("====================");
         System.out.println("Installing Java to " + location);
         System.out.println("====================");
-        install(ArtifactType.JAVA, location);
+        installTo(ArtifactType.JAVA, Collections.singletonList(location));
     }
 
     /**
@@ -116,7 +588,7 @@ public class Installer {
         System.out.println("====================");
         System.out.println("Installing JNI to " + location);
         System.out.println("====================");
-        install(ArtifactType.JNI, location);
+        installTo(ArtifactType.JNI, Collections.singletonList(location));
     }
 
     /**
@@ -126,7 +598,7 @@ public class Installer {
         System.out.println("====================");
         System.out.println("Installing headers to " + location);
         System.out.println("====================");
-        install(ArtifactType.HEADERS, location);
+        installTo(ArtifactType.HEADERS, Collections.singletonList(location));
     }
 
     /**
@@ -136,64 +608,417 @@ public class Installer {
         System.out.println("====================");
         System.out.println("Installing natives to " + location);
         System.out.println("====================");
-        install(ArtifactType.NATIVES, location);
+        installTo(ArtifactType.NATIVES, Collections.singletonList(location));
+    }
+
+    /**
+     * Installs an artifact into several directories at once, e.g. the sysroots of several cross-compilers. The
+     * artifact is only extracted once, and each file is copied once per file system; directories on the same file
+     * system get hard links to the first copy.
+     *
+     * @param type      the type of artifact to install
+     * @param locations the directories to install the artifact into
+     *
+     * @throws IOException if the artifact could not be found or installed
+     */
+    public static void install(ArtifactType type, Collection<String> locations) throws IOException {
+        System.out.println("====================");
+        System.out.println("Installing " + type.getArtifactName() + " to " + String.join(", ", locations));
+        System.out.println("====================");
+        installTo(type, new ArrayList<>(locations));
     }
 
-    private static void install(ArtifactType type, String location) throws IOException {
-        if (!Paths.get(location).isAbsolute()) {
-            // Force location to be an absolute path
-            location = Paths.get(location).toAbsolutePath().toString();
+    /**
+     * Installs an artifact for a specific version and platform. Unlike the other install methods, this doesn't use the
+     * version and platform set with {@link #setOpenCvVersion} and {@link #setPlatform}, so it's safe to call from
+     * several threads at once, e.g. to install the artifacts for several platforms in parallel. Downloads and
+     * extracted trees are shared between concurrent calls.
+     *
+     * @param type     the type of artifact to install
+     * @param version  the version of OpenCV to install
+     * @param platform the platform to install the artifact for
+     * @param location the directory to install the artifact into
+     *
+     * @throws IOException if the artifact could not be found or installed
+     */
+    public static void install(ArtifactType type, String version, Platform platform, Path location) throws IOException {
+        System.out.println("====================");
+        System.out.println("Installing " + type.getArtifactName() + " for " + platform.name() + " to " + location);
+        System.out.println("====================");
+        install(type, version, platform, Collections.singletonList(location.toAbsolutePath()));
+    }
+
+    private static void installTo(ArtifactType type, List<String> locations) throws IOException {
+        if (locations.isEmpty()) {
+            throw new IllegalArgumentException("No install locations given for " + type.getArtifactName());
         }
-        String artifactId;
-        String v = openCvVersion;
-        String classifier = null;
-        String installLocation = location;
-        if (overridePlatform) {
-            installLocation = "install/" + location;
+        List<Path> installLocations = new ArrayList<>();
+        for (String location : locations) {
+            if (!Paths.get(location).isAbsolute()) {
+                // Force location to be an absolute path
+                location = Paths.get(location).toAbsolutePath().toString();
+            }
+            if (overridePlatform) {
+                location = "install/" + location;
+            }
+            installLocations.add(Paths.get(location));
         }
-        switch (type) {
-            case JAVA:
-                artifactId = javaJarName;
-                break;
-            case JNI:
-                artifactId = jniName;
-                classifier = platform.name();
-                break;
-            case HEADERS:
-                artifactId = headersName;
-                break;
-            case NATIVES:
-                artifactId = nativesName;
-                classifier = platform.name();
-                break;
-            default:
-                throw new UnsupportedOperationException("Unknown artifact type: " + type);
+        install(type, openCvVersion, getPlatform(), installLocations);
+    }
+
+    private static void install(ArtifactType type, String v, Platform platform, List<Path> installLocations) throws IOException {
+        installArtifact(type, v, platform, installLocations);
+        if (installDependencies) {
+            installDependencies(type, v, installLocations);
         }
-        URL remote = resolveRemote(artifactId, v, classifier);
-        File local = resolveLocal(artifactId, v, classifier);
-        File source;
-        if (!local.exists()) {
-            copyToMavenLocal(mavenUrl, artifactId, v, classifier);
+    }
+
+    private static void installArtifact(ArtifactType type, String v, Platform platform, List<Path> installLocations) throws IOException {
+        String artifactId = type.getArtifactId();
+        String classifier = classifierFor(type, v, platform);
+        if (usePacked(type)) {
+            Path packed = fetchPacked(artifactId, v, classifier);
+            if (packed != null) {
+                installPacked(packed, installLocations);
+                return;
+            }
         }
-        if (local.exists()) {
-            System.out.println("Using local file at " + local.toURI());
-            source = local;
+        File source = fetchArtifact(artifactId, v, classifier);
+        boolean selectModules = type == ArtifactType.JNI || type == ArtifactType.NATIVES;
+        installFile(resolveFullArtifactName(artifactId, v, classifier), source.toPath(), type != ArtifactType.JAVA,
+                selectModules ? modules : Collections.emptyList(), installLocations);
+    }
+
+    /**
+     * Gets the jar of an artifact from the lockfile, or from the local maven repository after copying it there if
+     * needed.
+     */
+    private static File fetchArtifact(String artifactId, String v, String classifier) throws IOException {
+        URL remote = resolveRemote(artifactId, v, classifier);
+        File local;
+        if (lockfile != null) {
+            local = fetchLocked(artifactId, v, classifier).toFile();
         } else {
+            local = resolveLocal(artifactId, v, classifier);
+            if (!local.exists()) {
+                fetchToMavenLocal(artifactId, v, classifier);
+            }
+        }
+        if (!local.exists()) {
             throw new NoSuchFileException("Could not find artifacts. Looked in:\n" +
                     "        " + remote + "\n" +
                     "        " + local.toURI());
         }
+        System.out.println("Using local file at " + local.toURI());
+        return local;
+    }
+
+    /**
+     * Checks that the JNI bindings and native libraries among the given types have a library for every module set
+     * with {@link #setModules}, so a misspelled module is reported before anything is installed. The artifacts are
+     * extracted to check them, into the cache if it's on, where installing them picks the trees up again.
+     *
+     * @param types the types of the artifacts that are about to be installed
+     *
+     * @throws UnknownModuleException if an artifact has module libraries, but none for one of the modules
+     * @throws IOException            if an artifact could not be found or extracted
+     */
+    public static void checkModules(Collection<ArtifactType> types) throws IOException {
+        if (modules.isEmpty()) {
+            return;
+        }
+        for (ArtifactType type : types) {
+            if (type != ArtifactType.JNI && type != ArtifactType.NATIVES) {
+                continue;
+            }
+            String classifier = classifierFor(type, openCvVersion, getPlatform());
+            String name = resolveFullArtifactName(type.getArtifactId(), openCvVersion, classifier);
+            Path source = fetchArtifact(type.getArtifactId(), openCvVersion, classifier).toPath();
+            if (cacheSize > 0) {
+                try (ExtractionCache.Lease lease = getExtractionCache().acquire(name, source, Installer::unzip)) {
+                    ModuleSelector.select(lease.getTree(), modules);
+                }
+            } else {
+                Path unzipped = Files.createTempDirectory(unzippedDir, name);
+                unzip(source, unzipped);
+                ModuleSelector.select(unzipped, modules);
+            }
+        }
+    }
+
+    /**
+     * Installs a downloaded artifact file, either by extracting it or by copying the file itself.
+     *
+     * @param name           the name of the artifact, used to name the extracted tree in the cache
+     * @param source         the artifact file
+     * @param extract        true to extract the file, false to install the file as it is
+     * @param selectModules  the modules to install the libraries of, or an empty collection to install everything
+     */
+    private static void installFile(String name, Path source, boolean extract, Collection<String> selectModules,
+                                    List<Path> installLocations) throws IOException {
         Path unzipped;
-        if (type != ArtifactType.JAVA) {
-            unzipped = unzip(source);
+        ExtractionCache.Lease lease = null;
+        if (extract) {
+            // The whole artifact is extracted even when only some modules are installed, so the libraries are only
+            // inflated once and one cached tree serves every selection of modules
+            if (cacheSize > 0) {
+                lease = getExtractionCache().acquire(name, source, Installer::unzip);
+                unzipped = lease.getTree();
+            } else {
+                unzipped = Files.createTempDirectory(unzippedDir, name);
+                unzip(source, unzipped);
+            }
         } else {
-            Path dst = unzippedDir.resolve(artifactId + '-' + v).resolve(artifactId + '-' + v + ".jar");
-            Files.createDirectories(dst.getParent());
-            Files.copy(source.toPath(), dst);
-            System.out.println("  Downloaded Java to " + dst);
+            Path dst = Files.createTempDirectory(unzippedDir, name).resolve(source.getFileName());
+            Files.copy(source, dst);
+            System.out.println("  Downloaded " + source.getFileName() + " to " + dst);
             unzipped = dst.getParent();
         }
-        copyAll(unzipped, Paths.get(installLocation));
+        try {
+            Predicate<String> filter = e -> true;
+            if (extract && !selectModules.isEmpty()) {
+                ModuleSelection selection = ModuleSelector.select(unzipped, selectModules);
+                if (selection != null) {
+                    System.out.println(selection + " for modules " + selectModules);
+                    filter = selection;
+                }
+            }
+            CopySummary summary = new TreeCopier(overwrite, copyThreads, ioBackend)
+                    .copy(unzipped, filter, installLocations);
+            System.out.println(summary);
+            summary.throwIfFailed();
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Installs the transitive dependencies declared in the POM of an artifact into the same locations as the artifact,
+     * or the dependencies the lockfile pins for it when installing from a lockfile. Dependencies that are archives are
+     * extracted unless they're dependencies of the Java API. Every dependency is downloaded in parallel before any of
+     * them is installed.
+     */
+    private static void installDependencies(ArtifactType type, String v, List<Path> installLocations) throws IOException {
+        Map<String, Callable<Path>> fetches = new LinkedHashMap<>();
+        if (lockfile != null) {
+            for (LockedArtifact dependency : lockfile.getDependencies(type.getArtifactId() + ':' + v)) {
+                fetches.put(dependency.getGroupId() + '.' + resolveFullArtifactName(
+                        dependency.getArtifactId(), dependency.getVersion(), dependency.getClassifier()),
+                        () -> fetchLocked(dependency));
+            }
+        } else {
+            for (Dependency dependency : dependencyGraph(type.getArtifactId(), v).resolve()) {
+                // POM-only artifacts just group their own dependencies, which are already in the graph
+                if (!dependency.getType().equals("pom")) {
+                    fetches.put(dependency.getGroupId() + '.' + resolveFullArtifactName(
+                            dependency.getArtifactId(), dependency.getVersion(), dependency.getClassifier()),
+                            () -> fetchDependency(dependency));
+                }
+            }
+        }
+        if (fetches.isEmpty()) {
+            return;
+        }
+        System.out.println("Installing dependencies of " + type.getArtifactName() + ": " + fetches.keySet());
+        Map<String, Future<Path>> downloads = new LinkedHashMap<>();
+        ExecutorService executor = ioBackend.newExecutor(maxTransfers);
+        try {
+            for (Map.Entry<String, Callable<Path>> fetch : fetches.entrySet()) {
+                downloads.put(fetch.getKey(), executor.submit(fetch.getValue()));
+            }
+            for (Map.Entry<String, Future<Path>> download : downloads.entrySet()) {
+                Path file = download.getValue().get();
+                String fileName = file.getFileName().toString();
+                boolean archive = fileName.endsWith(".jar") || fileName.endsWith(".zip");
+                installFile(
+                        download.getKey(),
+                        file,
+                        archive && type != ArtifactType.JAVA,
+                        Collections.emptyList(),
+                        installLocations
+                );
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Could not download the dependencies of " + type.getArtifactName(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading dependencies");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the dependency graph of an OpenCV artifact. Graphs are cached in memory and, for released versions, in
+     * the installer's cache directory, so the POMs are only parsed the first time a version is installed from a
+     * repository. Released POMs never change, so cached graphs don't expire.
+     */
+    private static DependencyGraph dependencyGraph(String artifactId, String version) throws IOException {
+        Dependency root = new Dependency(groupId, artifactId, version, null, null);
+        String key = mavenUrl + ' ' + root;
+        DependencyGraph graph = dependencyGraphs.get(key);
+        if (graph != null) {
+            return graph;
+        }
+        boolean cacheable = !version.endsWith("-SNAPSHOT");
+        Path cached = Paths.get(cacheDir, "dependencies", version, artifactId + ".deps");
+        if (cacheable && Files.exists(cached)) {
+            try {
+                graph = DependencyGraph.read(cached);
+                if (!graph.getRoot().equals(root) || !graph.getRepository().equals(mavenUrl)) {
+                    graph = null;
+                }
+            } catch (IOException e) {
+                System.out.println("Ignoring cached dependency graph " + cached + ": " + e.getMessage());
+                graph = null;
+            }
+        }
+        if (graph == null) {
+            System.out.println("Resolving the dependencies of " + root);
+            graph = new DependencyResolver(mavenUrl, Installer::fetchPom, maxTransfers, ioBackend).resolve(root);
+            if (cacheable) {
+                SharedFiles.publish(cached, file -> false, graph::write);
+            }
+        } else {
+            System.out.println("Using cached dependency graph of " + root);
+        }
+        DependencyGraph existing = dependencyGraphs.putIfAbsent(key, graph);
+        return existing != null ? existing : graph;
+    }
+
+    /**
+     * Checks if an artifact can be installed from its repacked companion. Lockfiles pin the jars, and module
+     * selection reads the libraries of the extracted jar, so neither can use companions.
+     */
+    private static boolean usePacked(ArtifactType type) {
+        return type != ArtifactType.JAVA && lockfile == null && modules.isEmpty();
+    }
+
+    private static void installPacked(Path packed, List<Path> installLocations) throws IOException {
+        System.out.println("Using repacked artifact at " + packed.toUri());
+        try (IndexedArchive archive = IndexedArchive.open(packed)) {
+            CopySummary summary = new ArchivePlacer(overwrite, copyThreads, ioBackend)
+                    .place(archive, e -> true, installLocations);
+            System.out.println(summary);
+            summary.throwIfFailed();
+        }
+    }
+
+    /**
+     * Gets the classifier of an artifact for a platform. Platform-specific artifacts use the build for the best CPU
+     * feature of the platform that's available, e.g. "linux-x86_64-avx2", or the baseline build named after the
+     * platform if there isn't one. The choice is remembered for the rest of the run.
+     *
+     * <p>Once the remote repository fails to answer, builds that are only in the remote repository aren't looked for
+     * again when the baseline build is already in the local maven repository, so installing offline doesn't wait on
+     * every probe to time out.</p>
+     */
+    private static String classifierFor(ArtifactType type, String v, Platform platform) {
+        if (!type.isPlatformSpecific()) {
+            return null;
+        }
+        // Repositories publish different builds, so the choice is only reused for the same repository
+        String key = mavenUrl + ' ' + type.getArtifactId() + ':' + v + ':' + platform.name();
+        String classifier = classifiers.get(key);
+        if (classifier != null) {
+            return classifier;
+        }
+        classifier = platform.name();
+        boolean baselineLocal = isLocal(type.getArtifactId(), v, classifier);
+        for (String feature : getCpuFeatures(platform)) {
+            String variant = platform.name() + '-' + feature;
+            if (hasVariant(type, v, variant, baselineLocal)) {
+                System.out.println("Using the " + feature + " build of the " + type.getArtifactName()
+                        + " for " + platform.name());
+                classifier = variant;
+                break;
+            }
+        }
+        String existing = classifiers.putIfAbsent(key, classifier);
+        return existing != null ? existing : classifier;
+    }
+
+    /**
+     * Checks if an artifact has a build with the given classifier. Lockfiles and bundles are only checked for the
+     * build, without touching the network. Otherwise a build that's only in the remote repository is copied to the
+     * local one while checking for it, since it's about to be installed, and a build the remote repository doesn't
+     * have is marked as missing next to the artifact's POM so it isn't looked for in that repository again for a day.
+     *
+     * @param baselineLocal true if the baseline build is in the local maven repository, so the remote repository
+     *                      isn't needed if it can't be reached
+     */
+    private static boolean hasVariant(ArtifactType type, String v, String classifier, boolean baselineLocal) {
+        String artifactId = type.getArtifactId();
+        if (lockfile != null) {
+            return lockfile.get(artifactId, v, classifier) != null;
+        }
+        if (isLocal(artifactId, v, classifier)) {
+            return true;
+        }
+        String dir = repositoryDir(artifactId, v);
+        String name = resolveFullArtifactName(artifactId, v, classifier);
+        Path missing = Paths.get(mavenLocal, dir, name + '-' + repositoryHash() + missingExtension);
+        if (bundle == null && isMarkedMissing(missing)) {
+            return false;
+        }
+        if (usePacked(type) && fetchPacked(artifactId, v, classifier) != null) {
+            return true;
+        }
+        if (bundle != null) {
+            return bundle.getEntry(dir + name + ".jar") != null;
+        }
+        if (baselineLocal && remoteUnreachable) {
+            return false;
+        }
+        try {
+            fetchToMavenLocal(artifactId, v, classifier);
+            return true;
+        } catch (FileNotFoundException e) {
+            markMissing(missing);
+            return false;
+        } catch (IOException e) {
+            System.out.println("Could not get " + name + ", using the baseline build: " + e.getMessage());
+            remoteUnreachable = true;
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the local maven repository has the jar or the repacked companion of an artifact.
+     */
+    private static boolean isLocal(String artifactId, String v, String classifier) {
+        String dir = repositoryDir(artifactId, v);
+        String name = resolveFullArtifactName(artifactId, v, classifier);
+        return Files.exists(Paths.get(mavenLocal, dir, name + ".jar"))
+                || Files.exists(Paths.get(mavenLocal, dir, name + packedExtension));
+    }
+
+    /**
+     * Gets a short hash of the remote repository URL, so files about what one repository has don't apply to another.
+     */
+    private static String repositoryHash() {
+        byte[] hash = Hashes.newSha256().digest(mavenUrl.getBytes(StandardCharsets.UTF_8));
+        return Hashes.toHex(Arrays.copyOf(hash, 8));
+    }
+
+    private static boolean isMarkedMissing(Path marker) {
+        try {
+            return System.currentTimeMillis() - Files.getLastModifiedTime(marker).toMillis() < missingVariantTtl;
+        } catch (IOException e) {
+            // No marker
+            return false;
+        }
+    }
+
+    private static void markMissing(Path marker) {
+        try {
+            Files.createDirectories(marker.getParent());
+            Files.write(marker, new byte[0]);
+        } catch (IOException e) {
+            System.out.println("Could not mark " + marker.getFileName() + " as missing: " + e.getMessage());
+        }
     }
 
     private static URL resolveRemote(String artifactId, String version, String classifier) throws MalformedURLException {
@@ -218,12 +1043,19 @@ public class Installer {
      * Unzips the given zip file
      *
      * @param zipFile the file to unzip
+     * @param dstDir  the directory to unzip the file into
+     * @param filter  selects the names of the entries to unzip
      *
-     * @return the directory that the file was unzipped into
+     * @throws IOException if the file could not be unzipped
      */
-    private static Path unzip(File zipFile) {
-        final Path dstDir = unzippedDir.resolve(zipFile.getName().replaceAll("^(.*)\\.(.*)$", "$1") + "/");
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile))) {
+    private static void unzip(Path zipFile, Path dstDir) throws IOException {
+        // Inflating is sequential, but writing the inflated files is handed off to the I/O backend so that artifacts
+        // with many small files aren't bound by file creation. Large entries are streamed straight to disk instead
+        // of being buffered.
+        ExecutorService executor = ioBackend.newExecutor(copyThreads);
+        Semaphore buffered = new Semaphore(copyThreads * 2);
+        List<Future<?>> writes = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zipFile))) {
             Files.createDirectories(dstDir);
             for (ZipEntry e = zis.getNextEntry(); e != null; e = zis.getNextEntry()) {
                 String fileName = e.getName();
@@ -232,62 +1064,324 @@ public class Installer {
                     continue;
                 }
                 System.out.println("  File: " + fileName);
-                Path dst = dstDir.resolve(fileName);
+                Path dst = dstDir.resolve(fileName).normalize();
+                if (!dst.startsWith(dstDir.normalize())) {
+                    throw new IOException("Entry " + fileName + " in " + zipFile + " is outside of the archive");
+                }
                 System.out.println("    Unzipping to " + dst);
                 if (!Files.exists(dst.getParent())) {
                     Files.createDirectories(dst.getParent());
                 }
-                if (!e.isDirectory()) {
-                    Files.deleteIfExists(dst);
-                    Files.copy(zis, dst);
+                if (e.isDirectory()) {
+                    continue;
+                }
+                // Sizes in the zip can't be trusted, so they never make the buffer larger than an entry can be
+                ByteArrayOutputStream data = new ByteArrayOutputStream(
+                        e.getSize() > 0 ? (int) Math.min(e.getSize(), maxBufferedEntry) : 8192);
+                if (!readAtMost(zis, data, maxBufferedEntry)) {
+                    try (OutputStream out = Files.newOutputStream(dst)) {
+                        data.writeTo(out);
+                        copy(zis, out);
+                    }
+                    continue;
                 }
+                buffered.acquire();
+                writes.add(executor.submit(() -> {
+                    try {
+                        return Files.write(dst, data.toByteArray());
+                    } finally {
+                        buffered.release();
+                    }
+                }));
             }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Could not unzip " + zipFile, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while unzipping " + zipFile);
         } catch (IOException e) {
-            throw new RuntimeException("Could not unzip " + zipFile, e);
+            throw new IOException("Could not unzip " + zipFile, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads from a stream until it ends or {@code limit} bytes have been read.
+     *
+     * @return true if the stream ended before the limit was reached
+     */
+    private static boolean readAtMost(InputStream in, ByteArrayOutputStream out, int limit) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (out.size() < limit) {
+            int n = in.read(buffer, 0, Math.min(buffer.length, limit - out.size()));
+            if (n < 0) {
+                return true;
+            }
+            out.write(buffer, 0, n);
+        }
+        return false;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
         }
-        return dstDir;
     }
 
     /**
-     * Copies all files from the source directory to the destination directory.
+     * Gets the directory of an artifact in a maven repository, relative to the root of the repository and ending in
+     * a '/'.
+     */
+    private static String repositoryDir(String artifactId, String version) {
+        return repositoryDir(groupId, artifactId, version);
+    }
+
+    private static String repositoryDir(String group, String artifactId, String version) {
+        return resolveDir("", group, artifactId, version).substring(1) + '/';
+    }
+
+    /**
+     * Resolves a path relative to the root of the local maven repository. Paths come from bundle entries and from
+     * coordinates in remote POMs, so anything that would end up outside of the repository is rejected.
      *
-     * @param sourceDir the directory holding the files to copy
-     * @param dstDir    the directory to copy the files into
+     * @param relative the '/'-separated path, relative to the root of the repository
      *
-     * @throws IOException if the source directory is unreadable
+     * @throws IOException if the path is outside of the local maven repository
      */
-    private static void copyAll(Path sourceDir, Path dstDir) throws IOException {
-        System.out.println("Copying all files from " + sourceDir + " into " + dstDir);
-        Files.list(sourceDir)
-                .forEach(p -> unsafeCopy(p, dstDir.resolve(p.getFileName())));
+    private static Path mavenLocalPath(String relative) throws IOException {
+        Path root = Paths.get(mavenLocal).toAbsolutePath().normalize();
+        Path path = root.resolve(relative).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IOException(relative + " is outside of the local maven repository");
+        }
+        return path;
     }
 
-    private static void unsafeCopy(Path src, Path dst) {
+    /**
+     * Copies an artifact to the local maven repository from the bundle if it's in there, or from the remote
+     * repository otherwise.
+     *
+     * @return the path to the copied jar
+     */
+    private static Path fetchToMavenLocal(String artifactId, String version, String classifier) throws IOException {
+        String dir = repositoryDir(artifactId, version);
+        String jar = resolveFullArtifactName(artifactId, version, classifier) + ".jar";
+        ArchiveEntry jarEntry = bundle == null ? null : bundle.getEntry(dir + jar);
+        if (jarEntry == null) {
+            return copyToMavenLocal(mavenUrl, artifactId, version, classifier);
+        }
+        System.out.println("Copying " + jar + " from bundle " + bundle.getPath() + " to the local maven repository");
+        Path dst = mavenLocalPath(dir + jar);
+        SharedFiles.publish(dst, tmp -> bundle.extract(jarEntry, tmp));
+        ArchiveEntry pomEntry = bundle.getEntry(String.format("%s%s-%s.pom", dir, artifactId, version));
+        if (pomEntry != null) {
+            Path pom = mavenLocalPath(pomEntry.getName());
+            SharedFiles.publish(pom, tmp -> bundle.extract(pomEntry, tmp));
+        }
+        return dst;
+    }
+
+    /**
+     * Gets the POM of an artifact from the local maven repository, the bundle, or the remote repository.
+     *
+     * @return the path to the POM in the local maven repository, or {@code null} if the artifact doesn't have one
+     */
+    private static Path fetchPom(Dependency artifact) throws IOException {
         try {
-            if (dst.getParent() != null && !Files.exists(dst.getParent())) {
-                Files.createDirectories(dst.getParent());
-            }
-            if (Files.isDirectory(src)) {
-                copyAll(src, dst);
+            return fetchFile(repositoryDir(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion()),
+                    artifact.getArtifactId() + '-' + artifact.getVersion() + ".pom");
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the file of a dependency from the local maven repository, the bundle, or the remote repository.
+     *
+     * @return the path to the file in the local maven repository
+     */
+    private static Path fetchDependency(Dependency artifact) throws IOException {
+        String dir = repositoryDir(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+        String name = resolveFullArtifactName(artifact.getArtifactId(), artifact.getVersion(), artifact.getClassifier())
+                + '.' + artifact.getType();
+        try {
+            return fetchFile(dir, name);
+        } catch (FileNotFoundException e) {
+            throw new NoSuchFileException("Could not find dependency " + artifact + " at " + mavenUrl + '/' + dir + name);
+        }
+    }
+
+    /**
+     * Copies a file to the local maven repository from the bundle if it's in there, or from the remote repository
+     * otherwise. Files that are already in the local repository are used as they are.
+     *
+     * @param dir  the directory of the file, relative to the root of the repository
+     * @param name the name of the file
+     *
+     * @return the path to the file in the local maven repository
+     *
+     * @throws FileNotFoundException if the remote repository doesn't have the file
+     */
+    private static Path fetchFile(String dir, String name) throws IOException {
+        Path dst = mavenLocalPath(dir + name);
+        ArchiveEntry entry = bundle == null ? null : bundle.getEntry(dir + name);
+        SharedFiles.publish(dst, tmp -> {
+            if (entry != null) {
+                System.out.println("Copying " + name + " from bundle " + bundle.getPath() + " to the local maven repository");
+                bundle.extract(entry, tmp);
             } else {
-                System.out.println("  Copying " + src.toAbsolutePath() + " to " + dst.toAbsolutePath());
-                if (Files.exists(dst) && overwrite) {
-                    System.out.println("    Destination file already exists, overwriting");
-                    Files.delete(dst);
-                    Files.copy(src, dst);
-                } else if (!(Files.exists(dst))) {
-                    Files.copy(src, dst);
+                System.out.println("Copying " + mavenUrl + '/' + dir + name + " to the local maven repository");
+                getDownloader().download(new URL(mavenUrl + '/' + dir + name), tmp);
+            }
+        });
+        return dst;
+    }
+
+    /**
+     * Gets the repacked companion of an artifact, as written by {@link #repack}, from the local maven repository,
+     * the bundle, or the remote repository. When a bundle is in use, the remote repository is not asked for
+     * companions that aren't in the bundle, and once the remote repository fails to answer it isn't asked for
+     * companions again.
+     *
+     * @return the path to the companion in the local maven repository, or {@code null} if there isn't one
+     */
+    private static Path fetchPacked(String artifactId, String version, String classifier) {
+        String dir = repositoryDir(artifactId, version);
+        String name = resolveFullArtifactName(artifactId, version, classifier) + packedExtension;
+        Path dst;
+        try {
+            dst = mavenLocalPath(dir + name);
+        } catch (IOException e) {
+            System.out.println("Could not get " + name + ", falling back to the jar: " + e.getMessage());
+            return null;
+        }
+        if (Files.exists(dst)) {
+            return dst;
+        }
+        ArchiveEntry entry = bundle == null ? null : bundle.getEntry(dir + name);
+        if (missingPacked.contains(dir + name) || (entry == null && (bundle != null || remoteUnreachable))) {
+            return null;
+        }
+        try {
+            SharedFiles.publish(dst, tmp -> {
+                if (entry != null) {
+                    System.out.println("Copying " + name + " from bundle " + bundle.getPath() + " to the local maven repository");
+                    bundle.extract(entry, tmp);
                 } else {
-                    System.out.println("    Destination file already exists, aborting copy");
+                    getDownloader().download(new URL(mavenUrl + '/' + dir + name), tmp);
+                    System.out.println("Copied " + name + " to the local maven repository");
                 }
-            }
+            });
+            return dst;
+        } catch (FileNotFoundException e) {
+            // Not every artifact has been repacked
+            missingPacked.add(dir + name);
+            return null;
         } catch (IOException e) {
-            throw new RuntimeException((e));
+            System.out.println("Could not get " + name + ", falling back to the jar: " + e.getMessage());
+            missingPacked.add(dir + name);
+            if (entry == null) {
+                remoteUnreachable = true;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Gets an OpenCV artifact pinned by the lockfile.
+     *
+     * @return the path to the verified jar in the local maven repository
+     *
+     * @throws IOException if the artifact is not in the lockfile, or if it could not be downloaded or verified
+     */
+    private static Path fetchLocked(String artifactId, String version, String classifier) throws IOException {
+        LockedArtifact locked = lockfile.get(artifactId, version, classifier);
+        if (locked == null) {
+            throw new NoSuchFileException("The lockfile does not have "
+                    + resolveFullArtifactName(artifactId, version, classifier));
         }
+        return fetchLocked(locked);
+    }
+
+    /**
+     * Gets an artifact pinned by the lockfile, downloading it from the locked URL if the local maven repository
+     * doesn't have a copy that matches the locked size and hash. A copy that was verified before and hasn't changed
+     * since is not hashed again.
+     *
+     * @return the path to the verified file in the local maven repository
+     *
+     * @throws IOException if the artifact could not be downloaded or verified
+     */
+    private static Path fetchLocked(LockedArtifact locked) throws IOException {
+        String name = resolveFullArtifactName(locked.getArtifactId(), locked.getVersion(), locked.getClassifier());
+        String dir = repositoryDir(locked.isDependency() ? locked.getGroupId() : groupId,
+                locked.getArtifactId(), locked.getVersion());
+        String fileName = name + ".jar";
+        if (locked.isDependency()) {
+            // Dependencies aren't always jars, so they keep the name they have in the remote repository
+            fileName = locked.getUrl().substring(locked.getUrl().lastIndexOf('/') + 1);
+            if (fileName.isEmpty() || fileName.startsWith(".")) {
+                throw new IOException("Malformed URL for " + name + " in the lockfile: " + locked.getUrl());
+            }
+        }
+        Path jar = mavenLocalPath(dir + fileName);
+        ArchiveEntry entry = bundle == null ? null : bundle.getEntry(dir + fileName);
+        boolean fetched = SharedFiles.publish(jar, file -> isVerified(file, locked), tmp -> {
+            if (entry != null) {
+                System.out.println("Copying " + name + " from bundle " + bundle.getPath() + " to the local maven repository");
+                bundle.extract(entry, tmp);
+            } else {
+                System.out.println("Copying " + locked.getUrl() + " to the local maven repository");
+                getDownloader().download(new URL(locked.getUrl()), tmp);
+            }
+            if (Files.size(tmp) != locked.getSize() || !Hashes.sha256(tmp).equals(locked.getSha256())) {
+                throw new IOException("Checksum mismatch for " + name + ": it does not match the lockfile");
+            }
+        });
+        if (fetched) {
+            Files.write(verificationStamp(jar), verificationStampOf(jar, locked).getBytes(StandardCharsets.UTF_8));
+        }
+        return jar;
+    }
+
+    /**
+     * Checks if a file matches the size and hash of a locked artifact. Matching files are stamped with their hash
+     * and modification time, so they aren't hashed again until they change.
+     */
+    private static boolean isVerified(Path file, LockedArtifact locked) throws IOException {
+        if (!Files.exists(file) || Files.size(file) != locked.getSize()) {
+            return false;
+        }
+        Path stamp = verificationStamp(file);
+        String expectedStamp = verificationStampOf(file, locked);
+        if (Files.exists(stamp) && new String(Files.readAllBytes(stamp), StandardCharsets.UTF_8).equals(expectedStamp)) {
+            return true;
+        }
+        if (Hashes.sha256(file).equals(locked.getSha256())) {
+            Files.write(stamp, expectedStamp.getBytes(StandardCharsets.UTF_8));
+            return true;
+        }
+        System.out.println("Local copy of " + file.getFileName() + " does not match the lockfile");
+        return false;
+    }
+
+    private static Path verificationStamp(Path file) {
+        return Paths.get(file + ".verified");
+    }
+
+    private static String verificationStampOf(Path file, LockedArtifact locked) throws IOException {
+        return locked.getSha256() + ' ' + Files.getLastModifiedTime(file).toMillis();
     }
 
     /**
-     * Copies a remote library to the local maven repository. This only downloads the .jar and the .pom
+     * Copies a remote library to the local maven repository. This only downloads the .jar and the .pom. Files are
+     * downloaded to a temporary file and renamed into place, and an installer that finds another one already
+     * downloading the same file waits for it and reuses its download.
      *
      * @return the path to the copied jar
      */
@@ -300,14 +1394,14 @@ public class Installer {
 
         String jar = resolveFullArtifactName(artifactId, version, classifier) + ".jar";
         String jarPath = remoteDir + '/' + jar;
-        System.out.println("Copying " + jarPath + " to the local maven repository");
-        Files.deleteIfExists(Paths.get(dstDir, jar));
-        Files.copy(new URL(jarPath).openStream(), Paths.get(dstDir, jar));
+        SharedFiles.publish(Paths.get(dstDir, jar), tmp -> {
+            System.out.println("Copying " + jarPath + " to the local maven repository");
+            getDownloader().download(new URL(jarPath), tmp);
+        });
 
         String pom = String.format("%s-%s.pom", artifactId, version);
         String pomPath = remoteDir + '/' + pom;
-        Files.deleteIfExists(Paths.get(dstDir, pom));
-        Files.copy(new URL(pomPath).openStream(), Paths.get(dstDir, pom));
+        SharedFiles.publish(Paths.get(dstDir, pom), tmp -> getDownloader().download(new URL(pomPath), tmp));
 
         return Paths.get(dstDir, jar);
     }
@@ -1,5 +1,7 @@
 package edu.wpi.first.wpilib.opencv.installer;
 
+import edu.wpi.first.wpilib.opencv.installer.lock.Lockfile;
+import edu.wpi.first.wpilib.opencv.installer.modules.UnknownModuleException;
 import edu.wpi.first.wpilib.opencv.installer.platform.Platform;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -11,13 +13,43 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class MainCLI {
 
+    private static final String DEFAULT_LOCKFILE = "opencv-installer.lock";
+
     /**
      * Main entry point.
      */
     public static void main(String[] args) throws ParseException {
+        if (args.length > 0) {
+            switch (args[0]) {
+                case "bundle":
+                    bundle(Arrays.copyOfRange(args, 1, args.length));
+                    return;
+                case "lock":
+                    lock(Arrays.copyOfRange(args, 1, args.length));
+                    return;
+                case "repack":
+                    repack(Arrays.copyOfRange(args, 1, args.length));
+                    return;
+                case "install":
+                    // Installing is the default command
+                    args = Arrays.copyOfRange(args, 1, args.length);
+                    break;
+                default:
+                    break;
+            }
+        }
         CommandLineParser p = new DefaultParser();
         Options options = new Options() {{
             addOption(Option.builder("j")
@@ -25,7 +57,7 @@ public class MainCLI {
                     .optionalArg(true)
                     .numberOfArgs(1)
                     .argName("install-path")
-                    .desc("Install the OpenCV Java library")
+                    .desc("Install the OpenCV Java library. Repeat to install into several directories")
                     .build()
             );
             addOption(Option.builder("i")
@@ -33,7 +65,7 @@ public class MainCLI {
                     .optionalArg(true)
                     .numberOfArgs(1)
                     .argName("install-path")
-                    .desc("Install the OpenCV JNI bindings")
+                    .desc("Install the OpenCV JNI bindings. Repeat to install into several directories")
                     .build()
             );
             addOption(Option.builder("s")
@@ -41,7 +73,7 @@ public class MainCLI {
                     .optionalArg(true)
                     .numberOfArgs(1)
                     .argName("install-path")
-                    .desc("Install the OpenCV C++ headers")
+                    .desc("Install the OpenCV C++ headers. Repeat to install into several directories")
                     .build()
             );
             addOption(Option.builder("n")
@@ -49,7 +81,7 @@ public class MainCLI {
                     .optionalArg(true)
                     .numberOfArgs(1)
                     .argName("install-path")
-                    .desc("Install the OpenCV native libraries")
+                    .desc("Install the OpenCV native libraries. Repeat to install into several directories")
                     .build()
             );
             addOption("h", "help", false, "Prints this help message");
@@ -57,6 +89,65 @@ public class MainCLI {
             addOption("v", "version", true, "Set the version of OpenCV to install");
             addOption("o", "overwrite", false, "Overwrite existing files when installing");
             addOption("p", "platform", true, "Install artifacts for a specific platform");
+            addOption("r", "repository", true, "The URL of the maven repository to download artifacts from");
+            addOption(Option.builder()
+                    .longOpt("max-bandwidth")
+                    .hasArg()
+                    .argName("bytes-per-second")
+                    .desc("Limit the combined download rate, e.g. 512K or 2M")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("max-transfers")
+                    .hasArg()
+                    .argName("count")
+                    .desc("The maximum number of concurrent downloads (default 4)")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("modules")
+                    .hasArg()
+                    .argName("modules")
+                    .desc("Only install the JNI and native libraries needed by these modules, separated by commas, "
+                            + "e.g. core,imgproc,videoio")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("cache-size")
+                    .hasArg()
+                    .argName("bytes")
+                    .desc("The size budget of the cache of extracted artifacts, e.g. 512M (default 1G, 0 disables it)")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("cpu-features")
+                    .hasArg()
+                    .argName("features")
+                    .desc("Prefer builds for these CPU features, best first and separated by commas, e.g. avx512,avx2. "
+                            + "Use 'none' for baseline builds (default: the features of this machine)")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("no-dependencies")
+                    .desc("Don't install the dependencies declared in the POMs of the installed artifacts")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("locked")
+                    .optionalArg(true)
+                    .numberOfArgs(1)
+                    .argName("lockfile")
+                    .desc("Install exactly the artifacts in a lockfile created with 'lock' (default "
+                            + DEFAULT_LOCKFILE + ")")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("from-bundle")
+                    .hasArg()
+                    .argName("bundle-file")
+                    .desc("Install artifacts from an offline bundle created with 'bundle export'")
+                    .build()
+            );
         }};
 
         // Parse CLI arguments
@@ -66,44 +157,118 @@ public class MainCLI {
             hf.printHelp("opencv-installer", options);
             return;
         }
-        if (!parsedArgs.hasOption("version")) {
+        String version = parsedArgs.getOptionValue("version");
+        if (parsedArgs.hasOption("locked")) {
+            Lockfile lockfile;
+            try {
+                lockfile = Lockfile.read(Paths.get(parsedArgs.getOptionValue("locked", DEFAULT_LOCKFILE)));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            Installer.setLockfile(lockfile);
+            if (version == null && lockfile.getVersions().size() == 1) {
+                // No need to repeat the version if the lockfile only has one
+                version = lockfile.getVersions().iterator().next();
+            }
+        }
+        if (version == null) {
             throw new MissingOptionException("-v <version>");
         }
         if (parsedArgs.hasOption("platform")) {
             Installer.setPlatform(Platform.valueOf(parsedArgs.getOptionValue("platform")));
         }
         Platform platform = Installer.getPlatform();
-        Installer.setOpenCvVersion(parsedArgs.getOptionValue("version"));
+        Installer.setOpenCvVersion(version);
         if (parsedArgs.hasOption("overwrite")) {
             Installer.overwriteExistingFiles();
         }
+        if (parsedArgs.hasOption("repository")) {
+            Installer.setRepositoryUrl(parsedArgs.getOptionValue("repository"));
+        }
+        if (parsedArgs.hasOption("max-bandwidth")) {
+            Installer.setMaxBandwidth(parseSize(parsedArgs.getOptionValue("max-bandwidth")));
+        }
+        if (parsedArgs.hasOption("max-transfers")) {
+            Installer.setMaxTransfers(Integer.parseInt(parsedArgs.getOptionValue("max-transfers")));
+        }
+        if (parsedArgs.hasOption("modules")) {
+            List<String> modules = new ArrayList<>();
+            for (String module : parsedArgs.getOptionValue("modules").split(",")) {
+                modules.add(module.trim());
+            }
+            Installer.setModules(modules);
+        }
+        if (parsedArgs.hasOption("cache-size")) {
+            Installer.setCacheSize(parseSize(parsedArgs.getOptionValue("cache-size")));
+        }
+        setCpuFeatures(parsedArgs);
+        if (parsedArgs.hasOption("no-dependencies")) {
+            Installer.setInstallDependencies(false);
+        }
+        if (parsedArgs.hasOption("from-bundle")) {
+            try {
+                Installer.setBundle(Paths.get(parsedArgs.getOptionValue("from-bundle")));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        // Download everything up front so the transfers can run in parallel
+        Set<ArtifactType> selected = EnumSet.noneOf(ArtifactType.class);
+        if (parsedArgs.hasOption("java") || parsedArgs.hasOption("all")) {
+            selected.add(ArtifactType.JAVA);
+        }
+        if (parsedArgs.hasOption("jni") || parsedArgs.hasOption("all")) {
+            selected.add(ArtifactType.JNI);
+        }
+        if (parsedArgs.hasOption("headers") || parsedArgs.hasOption("all")) {
+            selected.add(ArtifactType.HEADERS);
+        }
+        if (parsedArgs.hasOption("natives") || parsedArgs.hasOption("all")) {
+            selected.add(ArtifactType.NATIVES);
+        }
+        try {
+            Installer.prefetch(selected);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            Installer.checkModules(selected);
+        } catch (UnknownModuleException e) {
+            // Nothing has been installed yet, so a misspelled module doesn't leave a partial install behind
+            throw new ParseException(e.getMessage());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
 
         // Install selected artifacts
         System.out.println("Installing specified OpenCV components");
         if (parsedArgs.hasOption("java") || parsedArgs.hasOption("all")) {
             try {
-                Installer.installJava(parsedArgs.getOptionValue("java", platform.defaultJavaLocation()));
+                Installer.install(ArtifactType.JAVA, locations(parsedArgs, "java", platform.defaultJavaLocation()));
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
         if (parsedArgs.hasOption("jni") || parsedArgs.hasOption("all")) {
             try {
-                Installer.installJni(parsedArgs.getOptionValue("jni", platform.defaultJniLocation()));
+                Installer.install(ArtifactType.JNI, locations(parsedArgs, "jni", platform.defaultJniLocation()));
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
         if (parsedArgs.hasOption("headers") || parsedArgs.hasOption("all")) {
             try {
-                Installer.installHeaders(parsedArgs.getOptionValue("headers", platform.defaultHeadersLocation()));
+                Installer.install(ArtifactType.HEADERS, locations(parsedArgs, "headers", platform.defaultHeadersLocation()));
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
         if (parsedArgs.hasOption("natives") || parsedArgs.hasOption("all")) {
             try {
-                Installer.installNatives(parsedArgs.getOptionValue("natives", platform.defaultNativesLocation()));
+                Installer.install(ArtifactType.NATIVES, locations(parsedArgs, "natives", platform.defaultNativesLocation()));
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -113,4 +278,239 @@ public class MainCLI {
         System.out.println("Finished installing OpenCV");
     }
 
+    /**
+     * Entry point for the {@code bundle} command, which exports artifacts to or imports artifacts from an offline
+     * bundle.
+     */
+    private static void bundle(String[] args) throws ParseException {
+        CommandLineParser p = new DefaultParser();
+        Options options = new Options() {{
+            addOption("h", "help", false, "Prints this help message");
+            addOption(Option.builder("f")
+                    .longOpt("file")
+                    .hasArg()
+                    .required()
+                    .argName("bundle-file")
+                    .desc("The bundle file to write or read")
+                    .build()
+            );
+            addOption("v", "version", true, "The versions of OpenCV to export, separated by commas");
+            addOption("p", "platform", true, "The platforms to export, separated by commas. Defaults to this platform");
+            addOption("t", "types", true, "The artifact types to export, separated by commas. Defaults to all types");
+            addOption(Option.builder()
+                    .longOpt("cpu-features")
+                    .hasArg()
+                    .argName("features")
+                    .desc("Also export the builds for the best of these CPU features, separated by commas. Baseline "
+                            + "builds are always exported")
+                    .build()
+            );
+        }};
+        if (args.length == 0 || !(args[0].equals("export") || args[0].equals("import"))) {
+            new HelpFormatter().printHelp("opencv-installer bundle <export|import>", options);
+            return;
+        }
+        CommandLine parsedArgs = p.parse(options, Arrays.copyOfRange(args, 1, args.length));
+        if (parsedArgs.hasOption("help")) {
+            new HelpFormatter().printHelp("opencv-installer bundle <export|import>", options);
+            return;
+        }
+        try {
+            if (args[0].equals("import")) {
+                Installer.importBundle(Paths.get(parsedArgs.getOptionValue("file")));
+                System.out.println("Finished importing bundle");
+                return;
+            }
+            if (!parsedArgs.hasOption("version")) {
+                throw new MissingOptionException("-v <version>");
+            }
+            setCpuFeatures(parsedArgs);
+            Installer.exportBundle(
+                    Paths.get(parsedArgs.getOptionValue("file")),
+                    parseList(parsedArgs.getOptionValue("version")),
+                    parsePlatforms(parsedArgs),
+                    parseTypes(parsedArgs)
+            );
+            System.out.println("Finished exporting bundle");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Entry point for the {@code lock} command, which writes a lockfile pinning the artifacts to install.
+     */
+    private static void lock(String[] args) throws ParseException {
+        CommandLineParser p = new DefaultParser();
+        Options options = new Options() {{
+            addOption("h", "help", false, "Prints this help message");
+            addOption(Option.builder("f")
+                    .longOpt("file")
+                    .hasArg()
+                    .argName("lockfile")
+                    .desc("The lockfile to write (default opencv-installer.lock)")
+                    .build()
+            );
+            addOption("v", "version", true, "The versions of OpenCV to lock, separated by commas");
+            addOption("p", "platform", true, "The platforms to lock, separated by commas. Defaults to this platform");
+            addOption("t", "types", true, "The artifact types to lock, separated by commas. Defaults to all types");
+            addOption("r", "repository", true, "The URL of the maven repository to lock artifacts from");
+            addOption(Option.builder()
+                    .longOpt("no-dependencies")
+                    .desc("Don't lock the dependencies declared in the POMs of the locked artifacts")
+                    .build()
+            );
+            addOption(Option.builder()
+                    .longOpt("cpu-features")
+                    .hasArg()
+                    .argName("features")
+                    .desc("Also lock the builds for the best of these CPU features, separated by commas. Baseline "
+                            + "builds are always locked")
+                    .build()
+            );
+        }};
+        CommandLine parsedArgs = p.parse(options, args);
+        if (parsedArgs.hasOption("help")) {
+            new HelpFormatter().printHelp("opencv-installer lock", options);
+            return;
+        }
+        if (!parsedArgs.hasOption("version")) {
+            throw new MissingOptionException("-v <version>");
+        }
+        if (parsedArgs.hasOption("repository")) {
+            Installer.setRepositoryUrl(parsedArgs.getOptionValue("repository"));
+        }
+        if (parsedArgs.hasOption("no-dependencies")) {
+            Installer.setInstallDependencies(false);
+        }
+        setCpuFeatures(parsedArgs);
+        try {
+            Installer.writeLockfile(
+                    Paths.get(parsedArgs.getOptionValue("file", DEFAULT_LOCKFILE)),
+                    parseList(parsedArgs.getOptionValue("version")),
+                    parsePlatforms(parsedArgs),
+                    parseTypes(parsedArgs)
+            );
+            System.out.println("Finished writing lockfile");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Entry point for the {@code repack} command, which writes faster-to-install companions of artifact jars.
+     */
+    private static void repack(String[] args) throws ParseException {
+        CommandLineParser p = new DefaultParser();
+        Options options = new Options() {{
+            addOption("h", "help", false, "Prints this help message");
+            addOption(Option.builder("d")
+                    .longOpt("output-dir")
+                    .hasArg()
+                    .argName("dir")
+                    .desc("The directory to write the repacked artifacts to. Defaults to the directory of each jar")
+                    .build()
+            );
+        }};
+        CommandLine parsedArgs = p.parse(options, args);
+        if (parsedArgs.hasOption("help") || parsedArgs.getArgList().isEmpty()) {
+            new HelpFormatter().printHelp("opencv-installer repack <jar>...", options);
+            return;
+        }
+        try {
+            for (String jar : parsedArgs.getArgList()) {
+                Path path = Paths.get(jar).toAbsolutePath();
+                Path dstDir = parsedArgs.hasOption("output-dir")
+                        ? Paths.get(parsedArgs.getOptionValue("output-dir"))
+                        : path.getParent();
+                Installer.repack(path, dstDir);
+            }
+            System.out.println("Finished repacking");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies the comma-separated "cpu-features" option, where "none" means only baseline builds.
+     */
+    private static void setCpuFeatures(CommandLine parsedArgs) {
+        if (parsedArgs.hasOption("cpu-features")) {
+            String features = parsedArgs.getOptionValue("cpu-features");
+            Installer.setCpuFeatures(features.trim().equals("none") ? Collections.emptyList() : parseList(features));
+        }
+    }
+
+    private static List<String> parseList(String list) {
+        List<String> values = new ArrayList<>();
+        for (String value : list.split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets every install path given for an option, or the default path if the option was given without one.
+     */
+    private static List<String> locations(CommandLine parsedArgs, String option, String defaultLocation) {
+        String[] values = parsedArgs.getOptionValues(option);
+        if (values == null || values.length == 0) {
+            return Collections.singletonList(defaultLocation);
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Parses the comma-separated "platform" option, defaulting to the current platform.
+     */
+    private static List<Platform> parsePlatforms(CommandLine parsedArgs) {
+        List<Platform> platforms = new ArrayList<>();
+        if (parsedArgs.hasOption("platform")) {
+            for (String platform : parseList(parsedArgs.getOptionValue("platform"))) {
+                platforms.add(Platform.valueOf(platform));
+            }
+        } else {
+            platforms.add(Installer.getPlatform());
+        }
+        return platforms;
+    }
+
+    /**
+     * Parses the comma-separated "types" option, defaulting to every artifact type.
+     */
+    private static Set<ArtifactType> parseTypes(CommandLine parsedArgs) {
+        Set<ArtifactType> types = EnumSet.allOf(ArtifactType.class);
+        if (parsedArgs.hasOption("types")) {
+            types.clear();
+            for (String type : parseList(parsedArgs.getOptionValue("types"))) {
+                types.add(ArtifactType.valueOf(type.toUpperCase(Locale.ROOT)));
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Parses a byte count with an optional binary suffix, e.g. "512K", "2M" or "1G".
+     */
+    private static long parseSize(String size) {
+        String s = size.trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (s.endsWith("B")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        if (s.endsWith("K")) {
+            multiplier = 1L << 10;
+        } else if (s.endsWith("M")) {
+            multiplier = 1L << 20;
+        } else if (s.endsWith("G")) {
+            multiplier = 1L << 30;
+        }
+        if (multiplier != 1) {
+            s = s.substring(0, s.length() - 1);
+        }
+        return (long) (Double.parseDouble(s) * multiplier);
+    }
+
 }
@@ -3,12 +3,34 @@ package edu.wpi.first.wpilib.opencv.installer;
 import edu.wpi.first.wpilib.opencv.installer.platform.Platform;
 import lombok.experimental.UtilityClass;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @UtilityClass
 public class PlatformDetector {
 
     private static String os = null;
     private static String arch = null;
     private static Platform platform = null;
+    private static List<String> cpuFeatures = null;
+
+    private static final Path CPU_INFO = Paths.get("/proc/cpuinfo");
+
+    /**
+     * The CPU flags that builds for each x86 feature level need, matching the CPU dispatch groups of OpenCV.
+     */
+    private static final List<String> AVX512_FLAGS =
+            Arrays.asList("avx512f", "avx512cd", "avx512bw", "avx512dq", "avx512vl");
+    private static final List<String> AVX2_FLAGS = Arrays.asList("avx2", "fma", "f16c");
 
     /**
      * Gets the operating system as one of:
@@ -45,6 +67,7 @@ public class PlatformDetector {
      * <li>"x86_64"</li>
      * <li>"arm"</li>
      * <li>"armhf"</li>
+     * <li>"aarch64"</li>
      * </ul>
      *
      * @return the operating system architecture
@@ -63,6 +86,8 @@ public class PlatformDetector {
             arch = "arm";
         } else if (archName.matches("^(armhf)$")) {
             arch = "armhf";
+        } else if (archName.matches("^(aarch64|arm64)$")) {
+            arch = "aarch64";
         } else {
             throw new UnsupportedOperatingSystemError("Unsupported architecture: " + archName);
         }
@@ -87,4 +112,73 @@ public class PlatformDetector {
         return platform;
     }
 
+    /**
+     * Gets the optional CPU features of this machine that OpenCV can be built for, best first, as one of:
+     * <ul>
+     * <li>"avx512" and "avx2" on x86</li>
+     * <li>"neon" on 32-bit ARM</li>
+     * </ul>
+     * NEON is part of the 64-bit ARM baseline, so aarch64 has no optional features. Features are read from
+     * {@code /proc/cpuinfo}, so they're only detected on Linux.
+     *
+     * @return the optional CPU features of this machine, or an empty list if it has none or they can't be detected
+     */
+    public static List<String> getCpuFeatures() {
+        if (cpuFeatures != null) {
+            return cpuFeatures;
+        }
+        List<String> features = Collections.emptyList();
+        try {
+            if (getOs().equals("linux") && Files.isReadable(CPU_INFO)) {
+                features = parseCpuFeatures(getArch(), Files.readAllLines(CPU_INFO, StandardCharsets.UTF_8));
+            }
+        } catch (IOException | UnsupportedOperatingSystemError e) {
+            System.out.println("Could not detect CPU features: " + e.getMessage());
+        }
+        cpuFeatures = Collections.unmodifiableList(features);
+        return cpuFeatures;
+    }
+
+    /**
+     * Works out the optional CPU features from the contents of {@code /proc/cpuinfo}. Only features that every
+     * processor has are counted.
+     */
+    static List<String> parseCpuFeatures(String arch, List<String> cpuInfo) {
+        Set<String> flags = null;
+        for (String line : cpuInfo) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String key = line.substring(0, colon).trim();
+            // x86 lists its flags under "flags", and ARM under "Features"
+            if (key.equals("flags") || key.equals("Features")) {
+                String[] processorFlags = line.substring(colon + 1).trim().split("\\s+");
+                if (flags == null) {
+                    flags = new HashSet<>(Arrays.asList(processorFlags));
+                } else {
+                    flags.retainAll(Arrays.asList(processorFlags));
+                }
+            }
+        }
+        List<String> features = new ArrayList<>();
+        if (flags == null) {
+            return features;
+        }
+        if (arch.equals("x86") || arch.equals("x86_64")) {
+            if (flags.containsAll(AVX512_FLAGS)) {
+                features.add("avx512");
+            }
+            if (flags.containsAll(AVX2_FLAGS)) {
+                features.add("avx2");
+            }
+        } else if (arch.equals("arm") || arch.equals("armhf")) {
+            // 64-bit kernels call NEON "asimd", even when running a 32-bit JVM
+            if (flags.contains("neon") || flags.contains("asimd")) {
+                features.add("neon");
+            }
+        }
+        return features;
+    }
+
 }
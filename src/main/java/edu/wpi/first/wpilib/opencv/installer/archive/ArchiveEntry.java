@@ -0,0 +1,47 @@
+package edu.wpi.first.wpilib.opencv.installer.archive;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * An entry in the index of an {@link IndexedArchive}.
+ */
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public final class ArchiveEntry {
+
+    /**
+     * The name of this entry, as a '/'-separated relative path.
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * The position of the first byte of this entry's data in the archive.
+     */
+    @Getter
+    private final long offset;
+
+    /**
+     * The size of this entry's data, in bytes.
+     */
+    @Getter
+    private final long size;
+
+    private final byte[] sha256;
+
+    /**
+     * The SHA-256 hash of this entry's data.
+     */
+    public byte[] getSha256() {
+        return Arrays.copyOf(sha256, sha256.length);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + size + " bytes)";
+    }
+
+}
@@ -0,0 +1,274 @@
+package edu.wpi.first.wpilib.opencv.installer.archive;
+
+import edu.wpi.first.wpilib.opencv.installer.util.Hashes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An uncompressed archive with an index of every entry at its start. The archive is memory-mapped, so single entries
+ * can be read without reading or unpacking anything else in the archive.
+ *
+ * <p>The layout of an archive is:
+ * <pre>
+ *     magic       8 bytes, "OCVARCH1"
+ *     entryCount  int
+ *     index       entryCount entries of
+ *                     nameLength  short
+ *                     name        nameLength bytes of UTF-8
+ *                     offset      long
+ *                     size        long
+ *                     sha256      32 bytes
+ *     data        the contents of every entry, back-to-back
+ * </pre>
+ * All numbers are big-endian.</p>
+ *
+ * @see IndexedArchiveWriter
+ */
+public final class IndexedArchive implements Closeable {
+
+    static final byte[] MAGIC = "OCVARCH1".getBytes(StandardCharsets.US_ASCII);
+    static final int HASH_SIZE = 32;
+
+    /**
+     * The size of an index entry with an empty name.
+     */
+    private static final int MIN_INDEX_ENTRY_SIZE = Short.BYTES + Long.BYTES + Long.BYTES + HASH_SIZE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String, ArchiveEntry> entries;
+    private final MappedByteBuffer whole;
+
+    private IndexedArchive(Path path, FileChannel channel, Map<String, ArchiveEntry> entries) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.entries = entries;
+        // Mapping every entry on its own costs a system call per entry, which adds up for archives of many small
+        // files, so archives that fit in one mapping are mapped once and sliced
+        this.whole = channel.size() <= Integer.MAX_VALUE
+                ? channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                : null;
+    }
+
+    /**
+     * Opens an archive and reads its index.
+     *
+     * @param path the path to the archive file
+     *
+     * @return the opened archive
+     *
+     * @throws IOException if the file could not be read or is not an indexed archive
+     */
+    public static IndexedArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new IndexedArchive(path, channel, readIndex(path, channel));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Map<String, ArchiveEntry> readIndex(Path path, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + Integer.BYTES);
+        readFully(channel, header, 0);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an indexed archive: " + path);
+        }
+        int count = header.getInt();
+        // The index is much smaller than the data, so map everything after the header up to the end of the file
+        // (or 2GB, whichever is smaller) and read entries out of it
+        long pos = header.capacity();
+        MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, pos,
+                Math.min(channel.size() - pos, Integer.MAX_VALUE));
+        // Check every length against what's left of the mapping before reading it, so a truncated or damaged index
+        // is reported as such instead of as a buffer underflow
+        if (count < 0 || (long) count * MIN_INDEX_ENTRY_SIZE > index.remaining()) {
+            throw new IOException("Corrupt archive index in " + path);
+        }
+        Map<String, ArchiveEntry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (index.remaining() < MIN_INDEX_ENTRY_SIZE) {
+                throw new IOException("Corrupt archive index in " + path);
+            }
+            byte[] name = new byte[index.getShort() & 0xFFFF];
+            if (index.remaining() < name.length + MIN_INDEX_ENTRY_SIZE - Short.BYTES) {
+                throw new IOException("Corrupt archive index in " + path);
+            }
+            index.get(name);
+            long offset = index.getLong();
+            long size = index.getLong();
+            byte[] hash = new byte[HASH_SIZE];
+            index.get(hash);
+            if (offset < 0 || size < 0 || offset > channel.size() - size) {
+                throw new IOException("Corrupt archive index in " + path);
+            }
+            String n = new String(name, StandardCharsets.UTF_8);
+            entries.put(n, new ArchiveEntry(n, offset, size, hash));
+        }
+        return entries;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Gets the path to the archive file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets every entry in this archive, in the order they were written.
+     */
+    public Collection<ArchiveEntry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Gets the entry with the given name.
+     *
+     * @param name the name of the entry to get
+     *
+     * @return the entry with that name, or {@code null} if there is no such entry
+     */
+    public ArchiveEntry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Maps the data of an entry into memory. Entries larger than 2GB are not supported.
+     *
+     * @param entry the entry to map
+     *
+     * @return a read-only buffer holding the data of the entry
+     *
+     * @throws IOException if the entry could not be mapped
+     */
+    public ByteBuffer map(ArchiveEntry entry) throws IOException {
+        if (entry.getSize() > Integer.MAX_VALUE) {
+            throw new IOException("Entry is too large to map: " + entry);
+        }
+        if (whole != null) {
+            ByteBuffer data = whole.duplicate();
+            data.position((int) entry.getOffset());
+            data.limit((int) (entry.getOffset() + entry.getSize()));
+            return data.slice();
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, entry.getOffset(), entry.getSize());
+    }
+
+    /**
+     * Opens a stream that reads the data of an entry.
+     *
+     * @param entry the entry to read
+     *
+     * @return a stream of the entry's data
+     *
+     * @throws IOException if the entry could not be mapped
+     */
+    public InputStream openStream(ArchiveEntry entry) throws IOException {
+        return new ByteBufferInputStream(map(entry));
+    }
+
+    /**
+     * Copies the data of an entry to a file, replacing the file if it exists, and checks the data against the hash
+     * stored in the index.
+     *
+     * @param entry the entry to extract
+     * @param dst   the file to write the data to
+     *
+     * @throws IOException if the entry could not be written, or if its data does not match its hash
+     */
+    public void extract(ArchiveEntry entry, Path dst) throws IOException {
+        ByteBuffer data = map(entry);
+        if (!Arrays.equals(sha256(data.duplicate()), entry.getSha256())) {
+            throw new IOException("Checksum mismatch for " + entry.getName() + " in " + path);
+        }
+        if (dst.getParent() != null) {
+            Files.createDirectories(dst.getParent());
+        }
+        try (FileChannel out = FileChannel.open(dst, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                out.write(data);
+            }
+        }
+    }
+
+    static byte[] sha256(ByteBuffer data) {
+        MessageDigest digest = Hashes.newSha256();
+        digest.update(data);
+        return digest.digest();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+    }
+
+}
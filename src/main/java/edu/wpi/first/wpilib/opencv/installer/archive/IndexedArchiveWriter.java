@@ -0,0 +1,111 @@
+package edu.wpi.first.wpilib.opencv.installer.archive;
+
+import edu.wpi.first.wpilib.opencv.installer.util.Hashes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes an {@link IndexedArchive}. Entries are added by name and are only read when {@link #write(Path)} is called.
+ */
+public final class IndexedArchiveWriter {
+
+    private final Map<String, Path> sources = new LinkedHashMap<>();
+
+    /**
+     * Adds a file to the archive. Adding a second file with the same name replaces the first.
+     *
+     * @param name   the name of the entry, as a '/'-separated relative path
+     * @param source the file holding the data of the entry
+     *
+     * @return this writer
+     */
+    public IndexedArchiveWriter add(String name, Path source) {
+        if (name.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+            throw new IllegalArgumentException("Entry name is too long: " + name);
+        }
+        sources.put(name, source);
+        return this;
+    }
+
+    /**
+     * Writes the archive. The index is written first with the final offsets and sizes, then filled in with the
+     * hashes once every entry's data has been copied.
+     *
+     * @param dst the file to write the archive to. This will be replaced if it already exists.
+     *
+     * @throws IOException if any entry could not be read, or if the archive could not be written
+     */
+    public void write(Path dst) throws IOException {
+        // Compute the size of the index to know where the data starts
+        long indexSize = IndexedArchive.MAGIC.length + Integer.BYTES;
+        for (String name : sources.keySet()) {
+            indexSize += Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length
+                    + Long.BYTES * 2 + IndexedArchive.HASH_SIZE;
+        }
+        if (indexSize > Integer.MAX_VALUE) {
+            throw new IOException("Too many entries to write an index");
+        }
+
+        Map<String, ArchiveEntry> entries = new LinkedHashMap<>();
+        try (FileChannel out = FileChannel.open(dst, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = indexSize;
+            for (Map.Entry<String, Path> source : sources.entrySet()) {
+                long size = Files.size(source.getValue());
+                entries.put(source.getKey(), new ArchiveEntry(source.getKey(), offset, size, new byte[IndexedArchive.HASH_SIZE]));
+                offset += size;
+            }
+            out.position(indexSize);
+            for (ArchiveEntry entry : entries.values()) {
+                byte[] hash = copy(sources.get(entry.getName()), entry, out);
+                entries.put(entry.getName(), new ArchiveEntry(entry.getName(), entry.getOffset(), entry.getSize(), hash));
+            }
+            ByteBuffer index = ByteBuffer.allocate((int) indexSize);
+            index.put(IndexedArchive.MAGIC);
+            index.putInt(entries.size());
+            for (ArchiveEntry entry : entries.values()) {
+                byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+                index.putShort((short) name.length);
+                index.put(name);
+                index.putLong(entry.getOffset());
+                index.putLong(entry.getSize());
+                index.put(entry.getSha256());
+            }
+            index.flip();
+            while (index.hasRemaining()) {
+                out.write(index, index.position());
+            }
+        }
+    }
+
+    private static byte[] copy(Path source, ArchiveEntry entry, FileChannel out) throws IOException {
+        MessageDigest digest = Hashes.newSha256();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long copied = 0;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                copied += buffer.remaining();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        if (copied != entry.getSize()) {
+            throw new IOException("File changed while writing archive: " + source);
+        }
+        return digest.digest();
+    }
+
+}
@@ -0,0 +1,69 @@
+package edu.wpi.first.wpilib.opencv.installer.archive;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Repacks artifact jars into {@link IndexedArchive indexed archives}. Entries of an indexed archive are stored
+ * uncompressed behind an index of their sizes and SHA-256 hashes, so installing from one doesn't inflate anything
+ * and every file can be written and verified independently of the others.
+ */
+@UtilityClass
+public class Repacker {
+
+    /**
+     * Repacks a jar into an indexed archive. Directories and everything under {@code META-INF} are left out, the same
+     * as when the jar is installed.
+     *
+     * @param jar the jar to repack
+     * @param dst the file to write the archive to. This will be replaced if it already exists
+     *
+     * @return the number of files in the archive
+     *
+     * @throws IOException if the jar could not be read or the archive could not be written
+     */
+    public static int repack(Path jar, Path dst) throws IOException {
+        Path tmp = Files.createTempDirectory("opencv-repack");
+        try {
+            IndexedArchiveWriter writer = new IndexedArchiveWriter();
+            int count = 0;
+            try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(jar))) {
+                for (ZipEntry e = zis.getNextEntry(); e != null; e = zis.getNextEntry()) {
+                    if (e.isDirectory() || e.getName().contains("META-INF")) {
+                        continue;
+                    }
+                    Path file = tmp.resolve(e.getName()).normalize();
+                    if (!file.startsWith(tmp)) {
+                        throw new IOException("Entry " + e.getName() + " in " + jar + " is outside of the jar");
+                    }
+                    Files.createDirectories(file.getParent());
+                    Files.copy(zis, file, StandardCopyOption.REPLACE_EXISTING);
+                    writer.add(e.getName(), file);
+                    count++;
+                }
+            }
+            // Write next to the destination first so a half-written archive is never published
+            Path part = dst.resolveSibling(dst.getFileName() + ".part");
+            try {
+                writer.write(part);
+                Files.move(part, dst, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+            return count;
+        } finally {
+            try (Stream<Path> files = Files.walk(tmp)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,298 @@
+package edu.wpi.first.wpilib.opencv.installer.cache;
+
+import edu.wpi.first.wpilib.opencv.installer.util.Hashes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * A cache of extracted artifact trees, so installing an artifact that was already extracted doesn't need to inflate
+ * it again. Trees are keyed by the artifact coordinates and the SHA-256 hash of the artifact file, so a changed
+ * artifact is never served from a stale tree.
+ *
+ * <p>Each cached tree lives in its own directory under the cache root. A tree is extracted into a temporary directory
+ * and atomically renamed into place, so a tree is either absent or complete. When the cache grows past its size budget
+ * the least recently used trees are evicted, skipping any that are leased by an install in progress.</p>
+ *
+ * <p>The cache can be shared by installers running in different processes. Every tree has a lock file under
+ * {@code .locks}: leases hold a shared lock on it, and extracting or evicting a tree takes an exclusive lock, so a
+ * process never evicts a tree another process is installing from, and processes that want the same tree at the same
+ * time wait for the first one to extract it and then reuse it.</p>
+ */
+public final class ExtractionCache {
+
+    private static final String TREE = "tree";
+    private static final String SIZE = "size";
+    private static final String LOCKS = ".locks";
+
+    private final Path root;
+    private final long maxBytes;
+    private final Map<String, Object> keyLocks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> leases = new ConcurrentHashMap<>();
+    private final Map<String, FileLock> sharedLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Extracts an archive into a directory.
+     */
+    @FunctionalInterface
+    public interface Extractor {
+        void extract(Path archive, Path dstDir) throws IOException;
+    }
+
+    /**
+     * Creates a new extraction cache.
+     *
+     * @param root     the directory to keep extracted trees in
+     * @param maxBytes the total size of extracted trees to keep before evicting old ones
+     */
+    public ExtractionCache(Path root, long maxBytes) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the extracted tree of an archive, extracting it into the cache if it isn't there already. The tree will
+     * not be evicted by this cache until the returned lease is closed.
+     *
+     * @param coordinates the coordinates of the artifact, e.g. "opencv-jni-3.1.0-linux-x86_64"
+     * @param archive     the artifact file
+     * @param extractor   the function to use to extract the archive if it isn't cached
+     *
+     * @return a lease on the extracted tree
+     *
+     * @throws IOException if the archive could not be read or extracted
+     */
+    public Lease acquire(String coordinates, Path archive, Extractor extractor) throws IOException {
+        String key = coordinates + '-' + Hashes.sha256(archive).substring(0, 16);
+        Path entry = root.resolve(key);
+        synchronized (keyLocks.computeIfAbsent(key, k -> new Object())) {
+            int count = leases.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            try {
+                if (count == 1) {
+                    // First lease in this JVM; later ones piggyback on its shared lock
+                    sharedLocks.put(key, lockShared(key, archive, entry, extractor));
+                } else {
+                    System.out.println("Using cached extraction of " + archive.getFileName() + " at " + entry);
+                }
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException | RuntimeException e) {
+                release(key);
+                throw e;
+            }
+        }
+        evict();
+        return new Lease(key, entry.resolve(TREE));
+    }
+
+    /**
+     * Takes a shared lock on a tree, extracting the tree first under an exclusive lock if no process has done so yet.
+     */
+    private FileLock lockShared(String key, Path archive, Path entry, Extractor extractor) throws IOException {
+        Path locks = root.resolve(LOCKS);
+        Files.createDirectories(locks);
+        FileChannel channel = FileChannel.open(locks.resolve(key + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            while (true) {
+                FileLock shared = channel.lock(0, Long.MAX_VALUE, true);
+                if (Files.isDirectory(entry.resolve(TREE))) {
+                    System.out.println("Using cached extraction of " + archive.getFileName() + " at " + entry);
+                    return shared;
+                }
+                shared.release();
+                try (FileLock exclusive = channel.lock()) {
+                    if (!Files.isDirectory(entry.resolve(TREE))) {
+                        publish(archive, entry, extractor);
+                    }
+                }
+                // Downgrade to a shared lock and make sure nobody evicted the tree in between
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void publish(Path archive, Path entry, Extractor extractor) throws IOException {
+        Files.createDirectories(root);
+        Path tmp = Files.createTempDirectory(root, ".extracting-");
+        try {
+            extractor.extract(archive, tmp.resolve(TREE));
+            Files.write(tmp.resolve(SIZE), Long.toString(sizeOf(tmp.resolve(TREE))).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, entry);
+            }
+        } catch (IOException e) {
+            if (!Files.isDirectory(entry.resolve(TREE))) {
+                throw e;
+            }
+            // Another installer published the same tree first
+        } finally {
+            deleteRecursively(tmp);
+        }
+    }
+
+    private void release(String key) {
+        synchronized (keyLocks.get(key)) {
+            if (leases.get(key).decrementAndGet() > 0) {
+                return;
+            }
+            FileLock lock = sharedLocks.remove(key);
+            if (lock != null) {
+                try {
+                    lock.channel().close();
+                } catch (IOException e) {
+                    System.out.println("Could not release the cache lock for " + key + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used trees until the cache fits in its budget.
+     */
+    private synchronized void evict() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(root, p -> !p.getFileName().toString().startsWith("."))) {
+            for (Path child : children) {
+                if (Files.isRegularFile(child.resolve(SIZE))) {
+                    entries.add(child);
+                    total += storedSize(child);
+                }
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        entries.sort(Comparator.comparing(ExtractionCache::lastUsed));
+        for (Path entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            String key = entry.getFileName().toString();
+            synchronized (keyLocks.computeIfAbsent(key, k -> new Object())) {
+                AtomicInteger count = leases.get(key);
+                if (count != null && count.get() > 0) {
+                    continue;
+                }
+                long size = storedSize(entry);
+                if (evict(key, entry)) {
+                    total -= size;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts a tree unless another process has a lease on it.
+     *
+     * @return true if the tree was evicted
+     */
+    private boolean evict(String key, Path entry) throws IOException {
+        Files.createDirectories(root.resolve(LOCKS));
+        try (FileChannel channel = FileChannel.open(root.resolve(LOCKS).resolve(key + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            if (lock == null || !Files.isDirectory(entry)) {
+                return false;
+            }
+            System.out.println("Evicting " + key + " from the extraction cache");
+            // Rename first so other installers never see a half-deleted tree
+            Path doomed = root.resolve(".evicting-" + key + '-' + System.nanoTime());
+            Files.move(entry, doomed, StandardCopyOption.ATOMIC_MOVE);
+            deleteRecursively(doomed);
+            return true;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private static long storedSize(Path entry) throws IOException {
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(entry.resolve(SIZE)), StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException | NoSuchFileException e) {
+            // Unreadable, or just evicted by another installer
+            return 0;
+        }
+    }
+
+    private static FileTime lastUsed(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * A lease on an extracted tree. The tree is not evicted while any lease on it is open.
+     */
+    public final class Lease implements Closeable {
+
+        private final String key;
+        private final Path tree;
+        private boolean closed = false;
+
+        private Lease(String key, Path tree) {
+            this.key = key;
+            this.tree = tree;
+        }
+
+        /**
+         * Gets the root directory of the extracted tree.
+         */
+        public Path getTree() {
+            return tree;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(key);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package edu.wpi.first.wpilib.opencv.installer.cache;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes files into directories shared between processes, such as the local maven repository. Every file is
+ * written to a temporary file next to it and atomically renamed into place, so readers never see a partial file. A
+ * file lock per published file makes concurrent publishers of the same file wait for the first one and reuse its
+ * result instead of producing the file again.
+ */
+@UtilityClass
+public class SharedFiles {
+
+    /**
+     * File locks are held by the whole JVM, so threads in this JVM also have to take turns through these monitors.
+     */
+    private static final Map<Path, Object> monitors = new ConcurrentHashMap<>();
+
+    /**
+     * Writes the contents of a file.
+     */
+    @FunctionalInterface
+    public interface Producer {
+        void produce(Path dst) throws IOException;
+    }
+
+    /**
+     * Checks if an existing file can be used as it is.
+     */
+    @FunctionalInterface
+    public interface Check {
+        boolean test(Path file) throws IOException;
+    }
+
+    /**
+     * Publishes a file unless it already exists.
+     *
+     * @param dst      the file to publish
+     * @param producer writes the file. It's given a temporary path in the same directory as {@code dst}, which it
+     *                 has to create
+     *
+     * @return true if this call produced the file, false if it already existed or another process published it first
+     *
+     * @throws IOException if the file could not be produced or published
+     */
+    public static boolean publish(Path dst, Producer producer) throws IOException {
+        return publish(dst, Files::exists, producer);
+    }
+
+    /**
+     * Publishes a file unless an existing copy passes a check. The check is repeated after acquiring the lock for the
+     * file, so a copy published by another process while this one waited is reused.
+     *
+     * @param dst      the file to publish
+     * @param reusable checks if the file at {@code dst} can be used as it is
+     * @param producer writes the file. It's given a temporary path in the same directory as {@code dst}, which it
+     *                 has to create
+     *
+     * @return true if this call produced the file, false if an existing copy was reused
+     *
+     * @throws IOException if the file could not be produced or published
+     */
+    public static boolean publish(Path dst, Check reusable, Producer producer) throws IOException {
+        if (reusable.test(dst)) {
+            return false;
+        }
+        Path dir = dst.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path lockFile = dir.resolve(dst.getFileName() + ".lock");
+        synchronized (monitors.computeIfAbsent(lockFile, k -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                if (reusable.test(dst)) {
+                    System.out.println("  Reusing " + dst.getFileName() + " published by another installer");
+                    return false;
+                }
+                // The lock makes this the only writer of the file, so the temporary name doesn't need to be unique.
+                // It isn't made with createTempFile, since that would give the published file owner-only permissions
+                Path tmp = dir.resolve(dst.getFileName() + ".part");
+                try {
+                    // Left behind by an installer that died while producing the file
+                    Files.deleteIfExists(tmp);
+                    producer.produce(tmp);
+                    move(tmp, dst);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically moves a file or directory, replacing the target if it's a file.
+     */
+    static void move(Path src, Path dst) throws IOException {
+        try {
+            Files.move(src, dst, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(src, dst, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
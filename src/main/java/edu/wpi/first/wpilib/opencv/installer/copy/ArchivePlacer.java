@@ -0,0 +1,200 @@
+package edu.wpi.first.wpilib.opencv.installer.copy;
+
+import edu.wpi.first.wpilib.opencv.installer.archive.ArchiveEntry;
+import edu.wpi.first.wpilib.opencv.installer.archive.IndexedArchive;
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackend;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+
+/**
+ * Places the files of an {@link IndexedArchive} into a directory in parallel on the executor of an {@link IoBackend}.
+ * The index of the archive lists every file up front, so every file is placed as its own task without walking or
+ * inflating anything. Each file is checked against the hash in the index before it's written, and a failed placement
+ * never leaves a partial file behind. Existing files are replaced by renaming a new file over them.
+ *
+ * <p>Files can be placed into several directories at once. Each file is written once per file system; directories on
+ * the same file system get hard links to the first copy.</p>
+ *
+ * <p>Like {@link TreeCopier}, failures don't stop the other files from being placed; they are collected into the
+ * returned {@link CopySummary}.</p>
+ */
+public final class ArchivePlacer {
+
+    private final boolean overwrite;
+    private final int parallelism;
+    private final IoBackend backend;
+
+    /**
+     * Creates a new archive placer.
+     *
+     * @param overwrite   whether existing files at the destination should be replaced
+     * @param parallelism the maximum number of files to place at once
+     * @param backend     the backend to run the placements on
+     */
+    public ArchivePlacer(boolean overwrite, int parallelism, IoBackend backend) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        this.overwrite = overwrite;
+        this.parallelism = parallelism;
+        this.backend = backend;
+    }
+
+    /**
+     * Places the files of an archive into a directory, creating the directory if it doesn't exist.
+     *
+     * @param archive the archive holding the files to place
+     * @param filter  selects the names of the entries to place
+     * @param dstDir  the directory to place the files into
+     *
+     * @return a summary of what was placed and what failed
+     */
+    public CopySummary place(IndexedArchive archive, Predicate<String> filter, Path dstDir) {
+        return place(archive, filter, Collections.singletonList(dstDir));
+    }
+
+    /**
+     * Places the files of an archive into each of the given directories, creating them if they don't exist.
+     *
+     * @param archive the archive holding the files to place
+     * @param filter  selects the names of the entries to place
+     * @param dstDirs the directories to place the files into
+     *
+     * @return a summary of what was placed and what failed
+     */
+    public CopySummary place(IndexedArchive archive, Predicate<String> filter, List<Path> dstDirs) {
+        System.out.println("Placing files from " + archive.getPath() + " into " + TreeCopier.join(dstDirs));
+        long start = System.nanoTime();
+        List<Path> roots = new ArrayList<>();
+        for (Path dstDir : dstDirs) {
+            roots.add(dstDir.toAbsolutePath().normalize());
+        }
+        FanOut fanOut;
+        try {
+            fanOut = new FanOut(roots, overwrite);
+        } catch (IOException e) {
+            return new CopySummary(0, 0, 0, 0, 0, System.nanoTime() - start,
+                    Collections.singletonList(new AbstractMap.SimpleImmutableEntry<>(archive.getPath(), e)));
+        }
+        ExecutorService executor = backend.newExecutor(parallelism);
+        Placement placement = new Placement(archive, fanOut);
+        Map<ArchiveEntry, Future<?>> tasks = new LinkedHashMap<>();
+        try {
+            for (ArchiveEntry entry : archive.getEntries()) {
+                if (filter.test(entry.getName())) {
+                    tasks.put(entry, executor.submit(() -> placement.place(entry)));
+                }
+            }
+            // Wait for every task, so one failure doesn't cancel the files still being placed
+            for (Map.Entry<ArchiveEntry, Future<?>> task : tasks.entrySet()) {
+                try {
+                    task.getValue().get();
+                } catch (ExecutionException e) {
+                    placement.fail(fanOut.getRoots().get(0).resolve(task.getKey().getName()),
+                            new IOException("Could not place " + task.getKey().getName(), e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            placement.fail(archive.getPath(), new InterruptedIOException("Interrupted while placing files"));
+        } catch (RejectedExecutionException e) {
+            placement.fail(archive.getPath(), new IOException("Could not schedule placements", e));
+        } finally {
+            executor.shutdownNow();
+        }
+        return new CopySummary(placement.directories.size(), fanOut.filesCopied.get(), fanOut.filesLinked.get(),
+                fanOut.filesSkipped.get(), fanOut.bytesCopied.get(), System.nanoTime() - start,
+                new ArrayList<>(placement.errors));
+    }
+
+    /**
+     * The state of a single call to {@link #place}.
+     */
+    private final class Placement {
+
+        private final IndexedArchive archive;
+        private final FanOut fanOut;
+        private final Semaphore io = new Semaphore(parallelism);
+
+        private final Set<String> directories = ConcurrentHashMap.newKeySet();
+        private final ConcurrentLinkedQueue<Map.Entry<Path, IOException>> errors = new ConcurrentLinkedQueue<>();
+
+        Placement(IndexedArchive archive, FanOut fanOut) {
+            this.archive = archive;
+            this.fanOut = fanOut;
+        }
+
+        private void fail(Path path, IOException e) {
+            System.out.println("    Could not place " + path + ": " + e);
+            errors.add(new AbstractMap.SimpleImmutableEntry<>(path, e));
+        }
+
+        Void place(ArchiveEntry entry) throws InterruptedException {
+            io.acquire();
+            try {
+                List<Path> targets = new ArrayList<>();
+                for (Path root : fanOut.getRoots()) {
+                    Path dst = root.resolve(entry.getName()).normalize();
+                    if (!dst.startsWith(root)) {
+                        throw new IOException("Entry " + entry.getName() + " is outside of the destination directory");
+                    }
+                    targets.add(dst);
+                }
+                directories.add(entry.getName().substring(0, entry.getName().lastIndexOf('/') + 1));
+                fanOut.write(targets, dst -> placeFile(entry, dst));
+            } catch (IOException e) {
+                fail(fanOut.getRoots().get(0).resolve(entry.getName()), e);
+            } catch (RuntimeException e) {
+                fail(fanOut.getRoots().get(0).resolve(entry.getName()),
+                        new IOException("Unexpected error while placing", e));
+            } finally {
+                io.release();
+            }
+            return null;
+        }
+
+        private long placeFile(ArchiveEntry entry, Path dst) throws IOException {
+            System.out.println("  Placing " + entry.getName() + " at " + dst);
+            if (Files.exists(dst)) {
+                // Replace the file through a new one so programs that have the old one open keep reading it intact
+                Path tmp = dst.resolveSibling("." + dst.getFileName() + '-' + UUID.randomUUID() + ".part");
+                try {
+                    archive.extract(entry, tmp);
+                    Files.move(tmp, dst, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            } else {
+                try {
+                    archive.extract(entry, dst);
+                } catch (IOException e) {
+                    Files.deleteIfExists(dst);
+                    throw e;
+                }
+            }
+            return entry.getSize();
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package edu.wpi.first.wpilib.opencv.installer.copy;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of copying a directory tree with a {@link TreeCopier}.
+ */
+@Getter
+public final class CopySummary {
+
+    /**
+     * The number of directories visited in the source tree.
+     */
+    private final long directories;
+
+    /**
+     * The number of files that were copied.
+     */
+    private final long filesCopied;
+
+    /**
+     * The number of files that were hard linked to a copy in another destination on the same file system instead of
+     * being copied.
+     */
+    private final long filesLinked;
+
+    /**
+     * The number of files that were not copied because they already existed at the destination.
+     */
+    private final long filesSkipped;
+
+    /**
+     * The total size of the copied files.
+     */
+    private final long bytesCopied;
+
+    /**
+     * The time taken by the copy, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The source path of every file or directory that could not be copied, along with the reason why.
+     */
+    private final List<Map.Entry<Path, IOException>> errors;
+
+    CopySummary(long directories, long filesCopied, long filesLinked, long filesSkipped, long bytesCopied,
+                long elapsedNanos, List<Map.Entry<Path, IOException>> errors) {
+        this.directories = directories;
+        this.filesCopied = filesCopied;
+        this.filesLinked = filesLinked;
+        this.filesSkipped = filesSkipped;
+        this.bytesCopied = bytesCopied;
+        this.elapsedNanos = elapsedNanos;
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    /**
+     * Checks if anything could not be copied.
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * Throws an exception describing every error if anything could not be copied.
+     *
+     * @throws IOException if anything could not be copied. The exception for each failed path is attached as a
+     *                     suppressed exception
+     */
+    public void throwIfFailed() throws IOException {
+        if (errors.isEmpty()) {
+            return;
+        }
+        IOException e = new IOException("Could not copy " + errors.size() + " file(s), the first was "
+                + errors.get(0).getKey());
+        errors.forEach(error -> e.addSuppressed(error.getValue()));
+        throw e;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Copied %d files (%.1f KiB) in %d directories in %d ms, linked %d files, skipped %d existing files, %d errors",
+                filesCopied, bytesCopied / 1024.0, directories, elapsedNanos / 1_000_000, filesLinked, filesSkipped,
+                errors.size());
+    }
+
+}
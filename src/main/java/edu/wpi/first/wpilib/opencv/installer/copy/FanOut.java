@@ -0,0 +1,116 @@
+package edu.wpi.first.wpilib.opencv.installer.copy;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes files to the same relative path under several root directories. Each file is only written once per file
+ * system: roots on a file system that already got a copy of the file in this run get a hard link to that copy
+ * instead. Roots are grouped by file system once, when the fan-out is created.
+ */
+final class FanOut {
+
+    private final List<Path> roots;
+    private final boolean overwrite;
+
+    /**
+     * The index of the first root on the same file system as each root.
+     */
+    private final int[] group;
+
+    final AtomicLong filesCopied = new AtomicLong();
+    final AtomicLong filesLinked = new AtomicLong();
+    final AtomicLong filesSkipped = new AtomicLong();
+    final AtomicLong bytesCopied = new AtomicLong();
+
+    /**
+     * Writes a single file.
+     */
+    @FunctionalInterface
+    interface Writer {
+
+        /**
+         * Writes the file, replacing it if it already exists.
+         *
+         * @return the number of bytes written
+         */
+        long write(Path dst) throws IOException;
+    }
+
+    /**
+     * Creates a fan-out to the given roots, creating any that don't exist.
+     *
+     * @throws IOException if a root could not be created
+     */
+    FanOut(List<Path> roots, boolean overwrite) throws IOException {
+        this.roots = Collections.unmodifiableList(new ArrayList<>(roots));
+        this.overwrite = overwrite;
+        this.group = new int[roots.size()];
+        List<FileStore> stores = new ArrayList<>();
+        for (int i = 0; i < roots.size(); i++) {
+            Files.createDirectories(roots.get(i));
+            FileStore store = Files.getFileStore(roots.get(i));
+            int first = stores.indexOf(store);
+            group[i] = first < 0 ? i : first;
+            stores.add(store);
+        }
+    }
+
+    List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Writes a file to each of the given targets, which line up with the roots. Existing targets are left alone
+     * unless overwriting is enabled.
+     *
+     * @param targets the path of the file under each root
+     * @param writer  writes the file to one target
+     *
+     * @throws IOException if the file could not be written to a target
+     */
+    void write(List<Path> targets, Writer writer) throws IOException {
+        Path[] written = new Path[targets.size()];
+        for (int i = 0; i < targets.size(); i++) {
+            Path target = targets.get(i);
+            if (Files.exists(target)) {
+                if (!overwrite) {
+                    System.out.println("    " + target + " already exists, aborting copy");
+                    filesSkipped.incrementAndGet();
+                    continue;
+                }
+                System.out.println("    " + target + " already exists, overwriting");
+            }
+            Files.createDirectories(target.getParent());
+            Path copy = written[group[i]];
+            if (copy != null && link(copy, target)) {
+                filesLinked.incrementAndGet();
+                continue;
+            }
+            bytesCopied.addAndGet(writer.write(target));
+            filesCopied.incrementAndGet();
+            if (copy == null) {
+                written[group[i]] = target;
+            }
+        }
+    }
+
+    private static boolean link(Path existing, Path target) {
+        try {
+            Files.deleteIfExists(target);
+            Files.createLink(target, existing);
+            System.out.println("  Linking " + target + " to " + existing);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Not every file system supports hard links, even between files on the same one
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package edu.wpi.first.wpilib.opencv.installer.copy;
+
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Copies directory trees in parallel on the executor of an {@link IoBackend}. Each directory is created at the
+ * destination before any of its contents are copied, and its files and subdirectories are then copied as separate
+ * tasks. On the platform thread backend the executor is a work-stealing fork/join pool; on every backend a semaphore
+ * bounds the number of concurrent I/O operations.
+ *
+ * <p>A tree can be copied into several destinations at once. Each file is read from the source once per file system
+ * it's copied to; destinations on the same file system get hard links to the first copy.</p>
+ *
+ * <p>Failures to copy a file or list a directory don't stop the rest of the tree from being copied; they are
+ * collected into the {@link CopySummary} returned by {@link #copy(Path, List)}.</p>
+ */
+public final class TreeCopier {
+
+    private final boolean overwrite;
+    private final int parallelism;
+    private final IoBackend backend;
+
+    /**
+     * Creates a new tree copier.
+     *
+     * @param overwrite   whether existing files at the destination should be replaced
+     * @param parallelism the maximum number of files and directories to work on at once
+     * @param backend     the backend to run the copies on
+     */
+    public TreeCopier(boolean overwrite, int parallelism, IoBackend backend) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        this.overwrite = overwrite;
+        this.parallelism = parallelism;
+        this.backend = backend;
+    }
+
+    /**
+     * Copies everything in the source directory into the destination directory, creating the destination if it
+     * doesn't exist.
+     *
+     * @param sourceDir the directory holding the files to copy
+     * @param dstDir    the directory to copy the files into
+     *
+     * @return a summary of what was copied and what failed
+     */
+    public CopySummary copy(Path sourceDir, Path dstDir) {
+        return copy(sourceDir, Collections.singletonList(dstDir));
+    }
+
+    /**
+     * Copies everything in the source directory into each of the destination directories, creating them if they
+     * don't exist.
+     *
+     * @param sourceDir the directory holding the files to copy
+     * @param dstDirs   the directories to copy the files into
+     *
+     * @return a summary of what was copied and what failed
+     */
+    public CopySummary copy(Path sourceDir, List<Path> dstDirs) {
+        return copy(sourceDir, name -> true, dstDirs);
+    }
+
+    /**
+     * Copies the files in the source directory that pass a filter into each of the destination directories, creating
+     * them if they don't exist. Directories are always created.
+     *
+     * @param sourceDir the directory holding the files to copy
+     * @param filter    tests the path of each file relative to the source directory, '/'-separated like the name of
+     *                  an archive entry
+     * @param dstDirs   the directories to copy the files into
+     *
+     * @return a summary of what was copied and what failed
+     */
+    public CopySummary copy(Path sourceDir, Predicate<String> filter, List<Path> dstDirs) {
+        System.out.println("Copying all files from " + sourceDir + " into " + join(dstDirs));
+        long start = System.nanoTime();
+        FanOut fanOut;
+        try {
+            fanOut = new FanOut(dstDirs, overwrite);
+        } catch (IOException e) {
+            return new CopySummary(0, 0, 0, 0, 0, System.nanoTime() - start,
+                    Collections.singletonList(new AbstractMap.SimpleImmutableEntry<>(sourceDir, e)));
+        }
+        ExecutorService executor = backend.newExecutor(parallelism);
+        Copy copy = new Copy(executor, fanOut, sourceDir, filter);
+        try {
+            copy.submit(() -> copy.copyDirectory(sourceDir, dstDirs), sourceDir);
+            copy.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            copy.fail(sourceDir, new InterruptedIOException("Interrupted while copying"));
+        } finally {
+            executor.shutdownNow();
+        }
+        return new CopySummary(copy.directories.get(), fanOut.filesCopied.get(), fanOut.filesLinked.get(),
+                fanOut.filesSkipped.get(), fanOut.bytesCopied.get(), System.nanoTime() - start,
+                new ArrayList<>(copy.errors));
+    }
+
+    static String join(List<Path> paths) {
+        StringBuilder joined = new StringBuilder();
+        for (Path path : paths) {
+            joined.append(joined.length() == 0 ? "" : ", ").append(path);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * An I/O operation on a single file or directory.
+     */
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * The state of a single call to {@link #copy(Path, Path)}.
+     */
+    private final class Copy {
+
+        private final ExecutorService executor;
+        private final FanOut fanOut;
+        private final Path root;
+        private final Predicate<String> filter;
+        private final Semaphore io = new Semaphore(parallelism);
+        private final AtomicInteger pending = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private final AtomicLong directories = new AtomicLong();
+        private final ConcurrentLinkedQueue<Map.Entry<Path, IOException>> errors = new ConcurrentLinkedQueue<>();
+
+        Copy(ExecutorService executor, FanOut fanOut, Path root, Predicate<String> filter) {
+            this.executor = executor;
+            this.fanOut = fanOut;
+            this.root = root;
+            this.filter = filter;
+        }
+
+        private void fail(Path path, IOException e) {
+            System.out.println("    Could not copy " + path + ": " + e);
+            errors.add(new AbstractMap.SimpleImmutableEntry<>(path, e));
+        }
+
+        /**
+         * Runs a task on the executor, recording any failure against the given path.
+         */
+        void submit(IoTask task, Path path) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        io.acquire();
+                        try {
+                            task.run();
+                        } finally {
+                            io.release();
+                        }
+                    } catch (IOException e) {
+                        fail(path, e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        fail(path, new InterruptedIOException("Interrupted while copying"));
+                    } catch (RuntimeException e) {
+                        // Otherwise the failure would only reach the executor, and the copy would look successful
+                        fail(path, new IOException("Unexpected error while copying", e));
+                    } finally {
+                        finish();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fail(path, new IOException("Could not schedule copy", e));
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        void await() throws InterruptedException {
+            done.await();
+        }
+
+        void copyDirectory(Path src, List<Path> dsts) throws IOException {
+            for (Path dst : dsts) {
+                Files.createDirectories(dst);
+            }
+            directories.incrementAndGet();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(src)) {
+                for (Path child : entries) {
+                    List<Path> targets = new ArrayList<>(dsts.size());
+                    for (Path dst : dsts) {
+                        targets.add(dst.resolve(child.getFileName().toString()));
+                    }
+                    if (Files.isDirectory(child)) {
+                        submit(() -> copyDirectory(child, targets), child);
+                    } else if (filter.test(root.relativize(child).toString().replace(File.separatorChar, '/'))) {
+                        submit(() -> copyFile(child, targets), child);
+                    }
+                }
+            }
+        }
+
+        void copyFile(Path src, List<Path> dsts) throws IOException {
+            fanOut.write(dsts, dst -> {
+                System.out.println("  Copying " + src.toAbsolutePath() + " to " + dst.toAbsolutePath());
+                Files.copy(src, dst, StandardCopyOption.REPLACE_EXISTING);
+                return Files.size(dst);
+            });
+        }
+
+    }
+
+}
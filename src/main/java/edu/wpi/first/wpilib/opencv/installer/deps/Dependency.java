@@ -0,0 +1,85 @@
+package edu.wpi.first.wpilib.opencv.installer.deps;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * The maven coordinates of an artifact in a dependency graph.
+ *
+ * <p>Coordinates are written as {@code groupId:artifactId:version}, followed by {@code :classifier} if the artifact
+ * has a classifier and {@code @type} if its type isn't {@code jar}.</p>
+ */
+@EqualsAndHashCode
+public final class Dependency {
+
+    private static final String DEFAULT_TYPE = "jar";
+
+    @Getter
+    private final String groupId;
+
+    @Getter
+    private final String artifactId;
+
+    @Getter
+    private final String version;
+
+    /**
+     * The classifier of the artifact, or {@code null} if it doesn't have one.
+     */
+    @Getter
+    private final String classifier;
+
+    /**
+     * The type of the artifact, which is also the extension of its file, e.g. {@code jar} or {@code pom}.
+     */
+    @Getter
+    private final String type;
+
+    /**
+     * @param classifier the classifier of the artifact, or {@code null} if it doesn't have one
+     * @param type       the type of the artifact, or {@code null} for a jar
+     */
+    public Dependency(String groupId, String artifactId, String version, String classifier, String type) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.classifier = classifier == null || classifier.isEmpty() ? null : classifier;
+        this.type = type == null || type.isEmpty() ? DEFAULT_TYPE : type;
+    }
+
+    /**
+     * Gets the coordinates of this artifact without its version. Only one version of each key is installed.
+     */
+    public String getKey() {
+        return groupId + ':' + artifactId + ':' + Objects.toString(classifier, "") + '@' + type;
+    }
+
+    /**
+     * Parses coordinates in the format written by {@link #toString()}.
+     *
+     * @throws IllegalArgumentException if the coordinates are malformed
+     */
+    public static Dependency parse(String coordinates) {
+        String type = null;
+        int at = coordinates.indexOf('@');
+        if (at >= 0) {
+            type = coordinates.substring(at + 1);
+            coordinates = coordinates.substring(0, at);
+        }
+        String[] parts = coordinates.split(":");
+        if (parts.length != 3 && parts.length != 4) {
+            throw new IllegalArgumentException("Malformed coordinates: " + coordinates);
+        }
+        return new Dependency(parts[0], parts[1], parts[2], parts.length == 4 ? parts[3] : null, type);
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ':' + artifactId + ':' + version
+                + (classifier == null ? "" : ":" + classifier)
+                + (type.equals(DEFAULT_TYPE) ? "" : "@" + type);
+    }
+
+}
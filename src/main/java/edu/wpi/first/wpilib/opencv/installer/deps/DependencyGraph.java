@@ -0,0 +1,169 @@
+package edu.wpi.first.wpilib.opencv.installer.deps;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The transitive dependencies of an artifact, as declared in the POMs of the artifact and its dependencies. Every
+ * version of a dependency that some POM asks for is kept in the graph; {@link #resolve()} picks the versions to
+ * install.
+ *
+ * <p>Graphs are saved as plain text, with the repository they were resolved from on the first line and then one
+ * artifact per line followed by its direct dependencies:
+ * <pre>
+ *     repository url
+ *     coordinates dependency-coordinates...
+ * </pre>
+ * The first artifact is the root of the graph. Coordinates are in the format of {@link Dependency#toString()}.</p>
+ */
+public final class DependencyGraph {
+
+    private final String repository;
+    private final Dependency root;
+    private final Map<Dependency, List<Dependency>> edges = new LinkedHashMap<>();
+
+    /**
+     * @param repository the URL of the repository the graph is resolved from
+     * @param root       the artifact whose dependencies are in the graph
+     */
+    public DependencyGraph(String repository, Dependency root) {
+        this.repository = repository;
+        this.root = root;
+    }
+
+    /**
+     * The URL of the repository the graph was resolved from.
+     */
+    public String getRepository() {
+        return repository;
+    }
+
+    public Dependency getRoot() {
+        return root;
+    }
+
+    /**
+     * Adds an artifact and its direct dependencies to the graph.
+     */
+    public void add(Dependency artifact, List<Dependency> dependencies) {
+        edges.put(artifact, Collections.unmodifiableList(new ArrayList<>(dependencies)));
+    }
+
+    /**
+     * Checks if the dependencies of an artifact are in the graph.
+     */
+    public boolean contains(Dependency artifact) {
+        return edges.containsKey(artifact);
+    }
+
+    /**
+     * Gets every artifact in the graph, including the root and versions that {@link #resolve()} doesn't pick.
+     */
+    public Set<Dependency> getArtifacts() {
+        return Collections.unmodifiableSet(edges.keySet());
+    }
+
+    /**
+     * Gets the direct dependencies of an artifact in the graph, or an empty list if it isn't in the graph.
+     */
+    public List<Dependency> getDependencies(Dependency artifact) {
+        return edges.getOrDefault(artifact, Collections.emptyList());
+    }
+
+    /**
+     * Picks the artifacts to install, the same way maven does: when the graph has several versions of an artifact,
+     * the one nearest to the root wins, and of those at the same depth the one declared first wins.
+     *
+     * @return the artifacts to install, nearest to the root first. This does not include the root
+     */
+    public List<Dependency> resolve() {
+        List<Dependency> resolved = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        seen.add(root.getKey());
+        Deque<Dependency> queue = new ArrayDeque<>(getDependencies(root));
+        while (!queue.isEmpty()) {
+            Dependency next = queue.poll();
+            if (seen.add(next.getKey())) {
+                resolved.add(next);
+                queue.addAll(getDependencies(next));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Reads a graph written by {@link #write}.
+     *
+     * @param file the file to read
+     *
+     * @return the graph
+     *
+     * @throws IOException if the file could not be read or is malformed
+     */
+    public static DependencyGraph read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.size() < 2 || !lines.get(0).startsWith("repository ")) {
+            throw new IOException("Malformed dependency graph " + file);
+        }
+        DependencyGraph graph = null;
+        try {
+            for (String line : lines.subList(1, lines.size())) {
+                String[] parts = line.trim().split("\\s+");
+                List<Dependency> dependencies = new ArrayList<>();
+                for (int i = 1; i < parts.length; i++) {
+                    dependencies.add(Dependency.parse(parts[i]));
+                }
+                Dependency artifact = Dependency.parse(parts[0]);
+                if (graph == null) {
+                    graph = new DependencyGraph(lines.get(0).substring("repository ".length()), artifact);
+                }
+                graph.add(artifact, dependencies);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed dependency graph " + file + ": " + e.getMessage());
+        }
+        return graph;
+    }
+
+    /**
+     * Writes this graph.
+     *
+     * @param file the file to write to
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("repository " + repository);
+            writer.newLine();
+            writeNode(writer, root);
+            for (Dependency artifact : edges.keySet()) {
+                if (!artifact.equals(root)) {
+                    writeNode(writer, artifact);
+                }
+            }
+        }
+    }
+
+    private void writeNode(BufferedWriter writer, Dependency artifact) throws IOException {
+        StringBuilder line = new StringBuilder(artifact.toString());
+        for (Dependency dependency : getDependencies(artifact)) {
+            line.append(' ').append(dependency);
+        }
+        writer.write(line.toString());
+        writer.newLine();
+    }
+
+}
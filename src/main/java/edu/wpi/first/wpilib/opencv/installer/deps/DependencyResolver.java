@@ -0,0 +1,117 @@
+package edu.wpi.first.wpilib.opencv.installer.deps;
+
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackend;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the {@link DependencyGraph} of an artifact by reading the POMs of the artifact and its dependencies. The
+ * graph is walked one level at a time, and the POMs of every artifact in a level are fetched and parsed in parallel,
+ * since they don't depend on each other.
+ */
+public final class DependencyResolver {
+
+    private final String repository;
+    private final PomSource poms;
+    private final int parallelism;
+    private final IoBackend backend;
+
+    /**
+     * Gets the POMs of artifacts.
+     */
+    @FunctionalInterface
+    public interface PomSource {
+
+        /**
+         * Gets the POM of an artifact, downloading it if needed.
+         *
+         * @return the POM, or {@code null} if the artifact doesn't have one
+         */
+        Path fetch(Dependency artifact) throws IOException;
+    }
+
+    /**
+     * Creates a new dependency resolver.
+     *
+     * @param repository  the URL of the repository the POMs come from
+     * @param poms        gets the POMs of artifacts
+     * @param parallelism the maximum number of POMs to fetch at once
+     * @param backend     the backend to fetch the POMs on
+     */
+    public DependencyResolver(String repository, PomSource poms, int parallelism, IoBackend backend) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        this.repository = repository;
+        this.poms = poms;
+        this.parallelism = parallelism;
+        this.backend = backend;
+    }
+
+    /**
+     * Resolves the transitive dependencies of an artifact.
+     *
+     * @param root the artifact to resolve the dependencies of
+     *
+     * @return the dependency graph of the artifact
+     *
+     * @throws IOException if a POM could not be fetched or parsed
+     */
+    public DependencyGraph resolve(Dependency root) throws IOException {
+        DependencyGraph graph = new DependencyGraph(repository, root);
+        ExecutorService executor = backend.newExecutor(parallelism);
+        try {
+            List<Dependency> level = Collections.singletonList(root);
+            while (!level.isEmpty()) {
+                Map<Dependency, Future<List<Dependency>>> parsed = new LinkedHashMap<>();
+                for (Dependency artifact : level) {
+                    parsed.put(artifact, executor.submit(() -> dependenciesOf(artifact)));
+                }
+                // Collect the next level in declaration order, so the graph doesn't depend on which POM came first
+                List<Dependency> next = new ArrayList<>();
+                for (Map.Entry<Dependency, Future<List<Dependency>>> entry : parsed.entrySet()) {
+                    List<Dependency> dependencies = entry.getValue().get();
+                    graph.add(entry.getKey(), dependencies);
+                    for (Dependency dependency : dependencies) {
+                        if (!graph.contains(dependency) && !parsed.containsKey(dependency) && !next.contains(dependency)) {
+                            next.add(dependency);
+                        }
+                    }
+                }
+                level = next;
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Could not resolve the dependencies of " + root, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while resolving the dependencies of " + root);
+        } finally {
+            executor.shutdownNow();
+        }
+        return graph;
+    }
+
+    private List<Dependency> dependenciesOf(Dependency artifact) throws IOException {
+        Path pom = poms.fetch(artifact);
+        if (pom == null) {
+            System.out.println("  " + artifact + " has no POM, assuming it has no dependencies");
+            return Collections.emptyList();
+        }
+        List<Dependency> dependencies = PomParser.parseDependencies(pom);
+        if (!dependencies.isEmpty()) {
+            System.out.println("  " + artifact + " depends on " + dependencies);
+        }
+        return dependencies;
+    }
+
+}
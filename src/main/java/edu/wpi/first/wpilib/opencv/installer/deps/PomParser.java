@@ -0,0 +1,174 @@
+package edu.wpi.first.wpilib.opencv.installer.deps;
+
+import lombok.experimental.UtilityClass;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the dependencies an artifact needs at runtime out of its POM.
+ *
+ * <p>Only the POM itself is read: {@code ${...}} properties are expanded from its {@code <properties>} and its own
+ * coordinates, and dependencies without a version take it from the POM's {@code <dependencyManagement>}. Parent POMs
+ * are only used for the project's own group and version. Test, provided, system, and optional dependencies are left
+ * out, since nothing needs them at runtime.</p>
+ */
+@UtilityClass
+public class PomParser {
+
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Set<String> SKIPPED_SCOPES = new HashSet<>(Arrays.asList("test", "provided", "system", "import"));
+
+    /**
+     * Reads the runtime dependencies declared in a POM.
+     *
+     * @param pom the POM to read
+     *
+     * @return the dependencies, in the order they're declared
+     *
+     * @throws IOException if the POM could not be read or is malformed
+     */
+    public static List<Dependency> parseDependencies(Path pom) throws IOException {
+        Element project;
+        try (InputStream in = Files.newInputStream(pom)) {
+            project = newDocumentBuilder().parse(in).getDocumentElement();
+        } catch (SAXException e) {
+            throw new IOException("Malformed POM " + pom + ": " + e.getMessage(), e);
+        }
+
+        Map<String, String> properties = new HashMap<>();
+        Element parent = child(project, "parent");
+        String groupId = text(project, "groupId", parent == null ? null : text(parent, "groupId", null));
+        String version = text(project, "version", parent == null ? null : text(parent, "version", null));
+        properties.put("project.groupId", groupId);
+        properties.put("project.artifactId", text(project, "artifactId", null));
+        properties.put("project.version", version);
+        properties.put("pom.version", version);
+        properties.put("version", version);
+        Element declared = child(project, "properties");
+        if (declared != null) {
+            for (Element property : children(declared, null)) {
+                properties.put(property.getTagName(), property.getTextContent().trim());
+            }
+        }
+
+        Map<String, String> managedVersions = new HashMap<>();
+        Element management = child(project, "dependencyManagement");
+        for (Element dependency : dependencies(management)) {
+            String managed = expand(text(dependency, "version", null), properties);
+            if (managed != null) {
+                managedVersions.put(managedKey(dependency, properties), managed);
+            }
+        }
+
+        List<Dependency> dependencies = new ArrayList<>();
+        for (Element dependency : dependencies(project)) {
+            String scope = text(dependency, "scope", "compile");
+            if (SKIPPED_SCOPES.contains(scope) || "true".equals(text(dependency, "optional", "false"))) {
+                continue;
+            }
+            String depGroup = expand(text(dependency, "groupId", null), properties);
+            String depArtifact = expand(text(dependency, "artifactId", null), properties);
+            String depVersion = expand(text(dependency, "version", null), properties);
+            if (depVersion == null) {
+                depVersion = managedVersions.get(managedKey(dependency, properties));
+            }
+            if (depGroup == null || depArtifact == null || depVersion == null || depVersion.contains("${")) {
+                throw new IOException("Dependency " + depGroup + ":" + depArtifact + " in " + pom
+                        + " has no version that can be worked out from the POM");
+            }
+            dependencies.add(new Dependency(
+                    depGroup,
+                    depArtifact,
+                    depVersion,
+                    expand(text(dependency, "classifier", null), properties),
+                    expand(text(dependency, "type", null), properties)
+            ));
+        }
+        return dependencies;
+    }
+
+    private static DocumentBuilder newDocumentBuilder() throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            // POMs never need a DTD, and not reading one keeps remote files from reaching out to other hosts
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setExpandEntityReferences(false);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IOException("Could not create an XML parser", e);
+        }
+    }
+
+    private static String managedKey(Element dependency, Map<String, String> properties) {
+        return expand(text(dependency, "groupId", null), properties) + ':'
+                + expand(text(dependency, "artifactId", null), properties) + ':'
+                + expand(text(dependency, "classifier", ""), properties);
+    }
+
+    private static String expand(String value, Map<String, String> properties) {
+        if (value == null) {
+            return null;
+        }
+        StringBuffer expanded = new StringBuffer();
+        Matcher matcher = PROPERTY.matcher(value);
+        while (matcher.find()) {
+            String property = properties.get(matcher.group(1));
+            matcher.appendReplacement(expanded, Matcher.quoteReplacement(property == null ? matcher.group() : property));
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+
+    /**
+     * Gets the {@code <dependency>} elements of the {@code <dependencies>} of an element.
+     */
+    private static List<Element> dependencies(Element element) {
+        Element dependencies = element == null ? null : child(element, "dependencies");
+        return dependencies == null ? new ArrayList<>() : children(dependencies, "dependency");
+    }
+
+    private static String text(Element element, String name, String defaultValue) {
+        Element child = child(element, name);
+        return child == null ? defaultValue : child.getTextContent().trim();
+    }
+
+    private static Element child(Element element, String name) {
+        List<Element> children = children(element, name);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    /**
+     * Gets the child elements of an element with the given tag name, or every child element if the name is
+     * {@code null}.
+     */
+    private static List<Element> children(Element element, String name) {
+        List<Element> children = new ArrayList<>();
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && (name == null || name.equals(((Element) node).getTagName()))) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+
+}
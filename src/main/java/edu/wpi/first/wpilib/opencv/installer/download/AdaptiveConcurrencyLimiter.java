@@ -0,0 +1,120 @@
+package edu.wpi.first.wpilib.opencv.installer.download;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of transfers running at once, adjusting the limit to the observed aggregate throughput and
+ * error rate.
+ *
+ * <p>The limit is re-evaluated once per window of completed transfers. A window with any failures halves the limit.
+ * Otherwise the limit grows by one while aggregate throughput keeps improving, and shrinks by one when throughput
+ * drops, which settles on the smallest number of transfers that fills the link.</p>
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Throughput must change by at least this fraction between windows to count as better or worse.
+     */
+    private static final double TOLERANCE = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private int limit;
+    private int inFlight = 0;
+
+    // Statistics for the current window
+    private long windowStart = System.nanoTime();
+    private long windowBytes = 0;
+    private int windowCompleted = 0;
+    private int windowFailed = 0;
+    private double lastThroughput = 0;
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param initialLimit the number of concurrent transfers to start with
+     * @param maxLimit     the maximum number of concurrent transfers
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("Maximum concurrency must be at least 1, but was " + maxLimit);
+        }
+        this.minLimit = 1;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * Gets the current concurrency limit.
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Blocks until a transfer may start.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Marks a transfer as finished and records its outcome.
+     *
+     * @param bytes   the number of bytes the transfer moved
+     * @param success whether the transfer completed successfully
+     */
+    public synchronized void release(long bytes, boolean success) {
+        inFlight--;
+        windowBytes += bytes;
+        if (success) {
+            windowCompleted++;
+        } else {
+            windowFailed++;
+        }
+        if (windowCompleted + windowFailed >= limit) {
+            adjust();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Marks a transfer as finished without recording an outcome, so it doesn't count towards the current window. This
+     * is for transfers that say nothing about the link, like requests for files the server doesn't have, and for
+     * attempts that will be retried.
+     */
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    private void adjust() {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - windowStart, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        double throughput = windowBytes / seconds;
+        int oldLimit = limit;
+        if (windowFailed > 0) {
+            limit = Math.max(minLimit, limit / 2);
+        } else if (throughput > lastThroughput * (1 + TOLERANCE)) {
+            limit = Math.min(maxLimit, limit + 1);
+        } else if (throughput < lastThroughput * (1 - TOLERANCE)) {
+            limit = Math.max(minLimit, limit - 1);
+        }
+        if (limit != oldLimit) {
+            System.out.printf("  Adjusted concurrent transfers from %d to %d (%.1f KiB/s, %d failed)%n",
+                    oldLimit, limit, throughput / 1024, windowFailed);
+        }
+        lastThroughput = throughput;
+        windowStart = now;
+        windowBytes = 0;
+        windowCompleted = 0;
+        windowFailed = 0;
+    }
+
+}
@@ -0,0 +1,57 @@
+package edu.wpi.first.wpilib.opencv.installer.download;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that limits the combined throughput of every transfer sharing it. Tokens are bytes; the bucket
+ * refills at the configured rate and holds at most one second's worth of tokens, so idle periods can't be saved up
+ * into a burst that saturates the link.
+ */
+public final class BandwidthLimiter {
+
+    private final long bytesPerSecond;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates a new bandwidth limiter.
+     *
+     * @param bytesPerSecond the maximum number of bytes per second to allow. Values less than or equal to zero
+     *                       disable the limit.
+     */
+    public BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Blocks until {@code bytes} bytes may be transferred. Requests larger than the bucket are allowed to run the
+     * bucket into debt, which later callers will wait out.
+     *
+     * @param bytes the number of bytes about to be transferred
+     *
+     * @throws InterruptedException if interrupted while waiting for tokens
+     */
+    public void acquire(int bytes) throws InterruptedException {
+        if (bytesPerSecond <= 0 || bytes <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= bytes;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(bytesPerSecond, tokens + (now - lastRefill) * (double) bytesPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+
+}
@@ -0,0 +1,122 @@
+package edu.wpi.first.wpilib.opencv.installer.download;
+
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackend;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads files while sharing a bandwidth budget and an adaptive concurrency limit between every transfer started
+ * through the same downloader.
+ */
+public final class Downloader {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 500;
+
+    private final IoBackend backend;
+    private final BandwidthLimiter bandwidthLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Creates a new downloader.
+     *
+     * @param backend           the backend to send requests with
+     * @param maxBytesPerSecond the maximum combined download rate, or zero for no limit
+     * @param maxTransfers      the maximum number of concurrent transfers
+     */
+    public Downloader(IoBackend backend, long maxBytesPerSecond, int maxTransfers) {
+        this(backend, new BandwidthLimiter(maxBytesPerSecond),
+                new AdaptiveConcurrencyLimiter(Math.min(2, maxTransfers), maxTransfers));
+    }
+
+    Downloader(IoBackend backend, BandwidthLimiter bandwidthLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.backend = backend;
+        this.bandwidthLimiter = bandwidthLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Downloads the file at the given URL, replacing the destination if it already exists. This blocks until the
+     * concurrency limiter allows the transfer to start. Transfers that fail part way through or end before the
+     * length the server announced are retried a few times; missing files are not. A transfer only counts as failed
+     * towards the concurrency limit once its last attempt fails, and requests for missing files don't count at all.
+     *
+     * @param url the URL to download
+     * @param dst the file to write to
+     *
+     * @return the number of bytes downloaded
+     *
+     * @throws IOException if the file could not be downloaded
+     */
+    public long download(URL url, Path dst) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return downloadOnce(url, dst, attempt >= MAX_ATTEMPTS);
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                System.out.println("  Download of " + url + " failed (" + e.getMessage() + "), retrying");
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MS * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to retry " + url);
+                }
+            }
+        }
+    }
+
+    private long downloadOnce(URL url, Path dst, boolean lastAttempt) throws IOException {
+        try {
+            concurrencyLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to download " + url);
+        }
+        ThrottledInputStream in = null;
+        boolean success = false;
+        boolean measured = true;
+        try {
+            IoBackend.Response response = backend.get(url);
+            try (InputStream raw = response.getBody()) {
+                in = new ThrottledInputStream(raw, bandwidthLimiter);
+                long n = Files.copy(in, dst, StandardCopyOption.REPLACE_EXISTING);
+                long expected = response.getContentLength();
+                if (expected >= 0 && n != expected) {
+                    throw new EOFException("Expected " + expected + " bytes but only got " + n);
+                }
+                success = true;
+                return n;
+            }
+        } catch (FileNotFoundException e) {
+            // The server answered, so a missing file says nothing about how congested the connection is
+            measured = false;
+            throw e;
+        } catch (IOException e) {
+            // Don't leave a truncated file behind for later runs to pick up
+            Files.deleteIfExists(dst);
+            // A download that is retried only counts as one failure, if every attempt fails
+            measured = lastAttempt;
+            throw e;
+        } finally {
+            if (measured) {
+                concurrencyLimiter.release(in == null ? 0 : in.getBytesRead(), success);
+            } else {
+                concurrencyLimiter.release();
+            }
+        }
+    }
+
+}
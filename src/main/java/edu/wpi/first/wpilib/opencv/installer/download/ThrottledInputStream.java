@@ -0,0 +1,61 @@
+package edu.wpi.first.wpilib.opencv.installer.download;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * An input stream that charges every byte read against a shared {@link BandwidthLimiter}.
+ */
+final class ThrottledInputStream extends FilterInputStream {
+
+    /**
+     * The largest single read, so one transfer can't grab the whole bucket at once.
+     */
+    private static final int MAX_CHUNK = 16 * 1024;
+
+    private final BandwidthLimiter limiter;
+    private long bytesRead = 0;
+
+    ThrottledInputStream(InputStream in, BandwidthLimiter limiter) {
+        super(in);
+        this.limiter = limiter;
+    }
+
+    /**
+     * Gets the total number of bytes read from this stream.
+     */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            charge(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, Math.min(len, MAX_CHUNK));
+        if (n > 0) {
+            charge(n);
+        }
+        return n;
+    }
+
+    private void charge(int n) throws IOException {
+        bytesRead += n;
+        try {
+            limiter.acquire(n);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while throttling download");
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package edu.wpi.first.wpilib.opencv.installer.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the blocking I/O of an install: downloads, writing extracted files, and copying files into place.
+ *
+ * @see IoBackends
+ */
+public interface IoBackend {
+
+    /**
+     * The name of this backend, for logging.
+     */
+    String getName();
+
+    /**
+     * Creates an executor for I/O tasks. Backends backed by a thread pool size it to {@code concurrency}; backends
+     * whose threads are cheap may run more tasks at once, so callers that need a hard bound on concurrent I/O should
+     * enforce it themselves.
+     *
+     * @param concurrency the number of tasks expected to run at once
+     *
+     * @return a new executor, which the caller must shut down
+     */
+    ExecutorService newExecutor(int concurrency);
+
+    /**
+     * Sends a GET request for a URL.
+     *
+     * @param url the URL to get
+     *
+     * @return the response
+     *
+     * @throws java.io.FileNotFoundException if the server responds with 404
+     * @throws IOException                   if the request fails
+     */
+    Response get(URL url) throws IOException;
+
+    /**
+     * The response to a GET request.
+     */
+    final class Response {
+
+        private final InputStream body;
+        private final long contentLength;
+
+        public Response(InputStream body, long contentLength) {
+            this.body = body;
+            this.contentLength = contentLength;
+        }
+
+        /**
+         * The body of the response. The caller must close it.
+         */
+        public InputStream getBody() {
+            return body;
+        }
+
+        /**
+         * The length of the body announced by the server, or -1 if it's unknown.
+         */
+        public long getContentLength() {
+            return contentLength;
+        }
+
+    }
+
+}
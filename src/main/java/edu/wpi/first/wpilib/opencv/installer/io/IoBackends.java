@@ -0,0 +1,31 @@
+package edu.wpi.first.wpilib.opencv.installer.io;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Chooses the {@link IoBackend} for the running JVM. This class is replaced in the multi-release jar for newer JVMs,
+ * which prefer a backend built on virtual threads.
+ */
+@UtilityClass
+public class IoBackends {
+
+    /**
+     * Set this system property to "platform" to always use platform threads.
+     */
+    public static final String BACKEND_PROPERTY = "opencv.installer.backend";
+
+    /**
+     * Gets the best I/O backend for the running JVM. On this JVM that is always the platform thread backend.
+     */
+    public static IoBackend preferred() {
+        return platformThreads();
+    }
+
+    /**
+     * Gets the backend that runs I/O on a bounded pool of platform threads. This is available on every JVM.
+     */
+    public static IoBackend platformThreads() {
+        return PlatformThreadBackend.INSTANCE;
+    }
+
+}
@@ -0,0 +1,37 @@
+package edu.wpi.first.wpilib.opencv.installer.io;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs I/O on a bounded pool of platform threads and downloads with {@link URLConnection}. The pool is a
+ * work-stealing {@link ForkJoinPool}, so tasks that submit more tasks (such as walking a directory tree) keep every
+ * thread busy.
+ */
+final class PlatformThreadBackend implements IoBackend {
+
+    static final PlatformThreadBackend INSTANCE = new PlatformThreadBackend();
+
+    private PlatformThreadBackend() {
+    }
+
+    @Override
+    public String getName() {
+        return "platform threads";
+    }
+
+    @Override
+    public ExecutorService newExecutor(int concurrency) {
+        return new ForkJoinPool(Math.max(1, concurrency));
+    }
+
+    @Override
+    public Response get(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        return new Response(connection.getInputStream(), connection.getContentLengthLong());
+    }
+
+}
@@ -0,0 +1,66 @@
+package edu.wpi.first.wpilib.opencv.installer.lock;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * An artifact pinned by a {@link Lockfile}. This is either an OpenCV artifact, or a dependency declared in the POM of
+ * one.
+ */
+@Value
+@AllArgsConstructor
+public class LockedArtifact {
+
+    String artifactId;
+
+    String version;
+
+    /**
+     * The classifier of the artifact, or {@code null} if it doesn't have one.
+     */
+    String classifier;
+
+    /**
+     * The size of the artifact file in bytes.
+     */
+    long size;
+
+    /**
+     * The SHA-256 hash of the artifact file, as lowercase hex.
+     */
+    String sha256;
+
+    /**
+     * The URL the artifact was resolved from.
+     */
+    String url;
+
+    /**
+     * The group of a dependency, or {@code null} for an OpenCV artifact.
+     */
+    String groupId;
+
+    /**
+     * The OpenCV artifact that needs this dependency, as {@code artifactId:version}, or {@code null} for an OpenCV
+     * artifact.
+     */
+    String requiredBy;
+
+    /**
+     * Creates a locked OpenCV artifact.
+     *
+     * @param classifier the classifier of the artifact, or {@code null} if it doesn't have one
+     * @param sha256     the SHA-256 hash of the artifact file, as lowercase hex
+     */
+    public LockedArtifact(String artifactId, String version, String classifier, long size, String sha256, String url) {
+        this(artifactId, version, classifier, size, sha256, url, null, null);
+    }
+
+    /**
+     * Checks if this is a dependency of an OpenCV artifact rather than an OpenCV artifact itself.
+     */
+    public boolean isDependency() {
+        return requiredBy != null;
+    }
+
+}
@@ -0,0 +1,166 @@
+package edu.wpi.first.wpilib.opencv.installer.lock;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A list of exact artifacts to install, with the URL each one is fetched from and the size and hash it must have.
+ * Installing from a lockfile skips resolving artifacts altogether, and doesn't touch the network if every locked
+ * artifact is already in the local maven repository.
+ *
+ * <p>Lockfiles are plain text, with one artifact per line:
+ * <pre>
+ *     artifactId version classifier size sha256 url
+ *     artifactId version classifier size sha256 url groupId requiredBy
+ * </pre>
+ * where a classifier of {@code -} means the artifact has no classifier. The first form is an OpenCV artifact, and the
+ * second is a dependency declared in the POM of the OpenCV artifact {@code requiredBy}, written as
+ * {@code artifactId:version}. Blank lines and lines starting with {@code #} are ignored.</p>
+ */
+public final class Lockfile {
+
+    private static final String NO_CLASSIFIER = "-";
+
+    private final Map<String, LockedArtifact> artifacts = new LinkedHashMap<>();
+
+    /**
+     * Adds an artifact to this lockfile, replacing any artifact with the same coordinates. Dependencies only replace
+     * dependencies of the same OpenCV artifact.
+     */
+    public void add(LockedArtifact artifact) {
+        String key = key(artifact.getArtifactId(), artifact.getVersion(), artifact.getClassifier());
+        if (artifact.isDependency()) {
+            key = artifact.getRequiredBy() + ' ' + artifact.getGroupId() + ':' + key;
+        }
+        artifacts.put(key, artifact);
+    }
+
+    /**
+     * Gets the locked artifact with the given coordinates.
+     *
+     * @return the locked artifact, or {@code null} if the lockfile doesn't have it
+     */
+    public LockedArtifact get(String artifactId, String version, String classifier) {
+        return artifacts.get(key(artifactId, version, classifier));
+    }
+
+    /**
+     * Gets the dependencies locked for an OpenCV artifact, in the order they're installed.
+     *
+     * @param requiredBy the OpenCV artifact, as {@code artifactId:version}
+     */
+    public List<LockedArtifact> getDependencies(String requiredBy) {
+        List<LockedArtifact> dependencies = new ArrayList<>();
+        for (LockedArtifact artifact : artifacts.values()) {
+            if (requiredBy.equals(artifact.getRequiredBy())) {
+                dependencies.add(artifact);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Gets every artifact in this lockfile.
+     */
+    public List<LockedArtifact> getArtifacts() {
+        return Collections.unmodifiableList(new ArrayList<>(artifacts.values()));
+    }
+
+    /**
+     * Gets every version of OpenCV that has an artifact in this lockfile.
+     */
+    public Set<String> getVersions() {
+        Set<String> versions = new LinkedHashSet<>();
+        for (LockedArtifact artifact : artifacts.values()) {
+            if (!artifact.isDependency()) {
+                versions.add(artifact.getVersion());
+            }
+        }
+        return versions;
+    }
+
+    private static String key(String artifactId, String version, String classifier) {
+        return artifactId + ':' + version + ':' + Objects.toString(classifier, NO_CLASSIFIER);
+    }
+
+    /**
+     * Reads a lockfile.
+     *
+     * @param file the file to read
+     *
+     * @return the lockfile
+     *
+     * @throws IOException if the file could not be read or is malformed
+     */
+    public static Lockfile read(Path file) throws IOException {
+        Lockfile lockfile = new Lockfile();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if (parts.length != 6 && parts.length != 8) {
+                throw new IOException(String.format("Malformed line %d in %s: %s", lineNumber, file, line));
+            }
+            try {
+                lockfile.add(new LockedArtifact(
+                        parts[0],
+                        parts[1],
+                        parts[2].equals(NO_CLASSIFIER) ? null : parts[2],
+                        Long.parseLong(parts[3]),
+                        parts[4],
+                        parts[5],
+                        parts.length == 8 ? parts[6] : null,
+                        parts.length == 8 ? parts[7] : null
+                ));
+            } catch (NumberFormatException e) {
+                throw new IOException(String.format("Malformed size on line %d in %s: %s", lineNumber, file, parts[3]));
+            }
+        }
+        return lockfile;
+    }
+
+    /**
+     * Writes this lockfile.
+     *
+     * @param file the file to write to
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# opencv-installer lockfile. Install from it with 'opencv-installer install --locked <file>'");
+            writer.newLine();
+            writer.write("# artifactId version classifier size sha256 url [groupId requiredBy]");
+            writer.newLine();
+            for (LockedArtifact a : artifacts.values()) {
+                writer.write(String.join(" ",
+                        a.getArtifactId(),
+                        a.getVersion(),
+                        Objects.toString(a.getClassifier(), NO_CLASSIFIER),
+                        Long.toString(a.getSize()),
+                        a.getSha256(),
+                        a.getUrl()));
+                if (a.isDependency()) {
+                    writer.write(" " + a.getGroupId() + " " + a.getRequiredBy());
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+}
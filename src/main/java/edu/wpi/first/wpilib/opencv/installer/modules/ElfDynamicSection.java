@@ -0,0 +1,194 @@
+package edu.wpi.first.wpilib.opencv.installer.modules;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parts of the dynamic section of an ELF shared object needed to work out its dependencies: its {@code DT_SONAME}
+ * and its {@code DT_NEEDED} entries.
+ *
+ * <p>The dynamic section is found through the program headers, and only the regions of the file holding the headers,
+ * the dynamic section, and its string table are read. The code and data that make up most of a library are never
+ * read.</p>
+ */
+public final class ElfDynamicSection {
+
+    private static final int PT_LOAD = 1;
+    private static final int PT_DYNAMIC = 2;
+    private static final long DT_NULL = 0;
+    private static final long DT_NEEDED = 1;
+    private static final long DT_STRTAB = 5;
+    private static final long DT_STRSZ = 10;
+    private static final long DT_SONAME = 14;
+
+    private final String soname;
+    private final List<String> needed;
+
+    private ElfDynamicSection(String soname, List<String> needed) {
+        this.soname = soname;
+        this.needed = Collections.unmodifiableList(needed);
+    }
+
+    /**
+     * The {@code DT_SONAME} of the library, or {@code null} if it doesn't have one.
+     */
+    public String getSoname() {
+        return soname;
+    }
+
+    /**
+     * The {@code DT_NEEDED} entries of the library, in the order they appear.
+     */
+    public List<String> getNeeded() {
+        return needed;
+    }
+
+    /**
+     * Reads the dynamic section of an ELF file. Only the ELF header, the program headers, the dynamic section, and its
+     * string table are read.
+     *
+     * @param file the file to read
+     *
+     * @return the dynamic section, or {@code null} if the file is not an ELF file or has no dynamic section
+     *
+     * @throws IOException if the file could not be read or is truncated
+     */
+    public static ElfDynamicSection read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    private static ElfDynamicSection read(FileChannel file) throws IOException {
+        if (file.size() < 16) {
+            return null;
+        }
+        ByteBuffer ident = region(file, 0, 16, ByteOrder.LITTLE_ENDIAN);
+        if (ident.get(0) != 0x7F || ident.get(1) != 'E' || ident.get(2) != 'L' || ident.get(3) != 'F') {
+            return null;
+        }
+        boolean is64 = ident.get(4) == 2;
+        ByteOrder order = ident.get(5) == 2 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+        ByteBuffer header = region(file, 0, is64 ? 64 : 52, order);
+        long phoff = is64 ? header.getLong(0x20) : getUInt(header, 0x1C);
+        int phentsize = header.getShort(is64 ? 0x36 : 0x2A) & 0xFFFF;
+        int phnum = header.getShort(is64 ? 0x38 : 0x2C) & 0xFFFF;
+        if (phentsize < (is64 ? 56 : 32)) {
+            throw new IOException("Program headers are too small");
+        }
+        ByteBuffer programHeaders = region(file, phoff, (long) phentsize * phnum, order);
+
+        List<long[]> loads = new ArrayList<>();
+        long dynOffset = -1;
+        long dynSize = 0;
+        for (int i = 0; i < phnum; i++) {
+            int ph = i * phentsize;
+            int type = programHeaders.getInt(ph);
+            long offset = is64 ? programHeaders.getLong(ph + 8) : getUInt(programHeaders, ph + 4);
+            long vaddr = is64 ? programHeaders.getLong(ph + 16) : getUInt(programHeaders, ph + 8);
+            long filesz = is64 ? programHeaders.getLong(ph + 32) : getUInt(programHeaders, ph + 16);
+            if (type == PT_LOAD) {
+                loads.add(new long[]{vaddr, offset, filesz});
+            } else if (type == PT_DYNAMIC) {
+                dynOffset = offset;
+                dynSize = filesz;
+            }
+        }
+        if (dynOffset < 0) {
+            return null;
+        }
+
+        ByteBuffer dynamic = region(file, dynOffset, dynSize, order);
+        int dynEntrySize = is64 ? 16 : 8;
+        List<Long> neededOffsets = new ArrayList<>();
+        long sonameOffset = -1;
+        long strtab = -1;
+        long strsz = 0;
+        for (int d = 0; d + dynEntrySize <= dynamic.limit(); d += dynEntrySize) {
+            long tag = is64 ? dynamic.getLong(d) : getUInt(dynamic, d);
+            long val = is64 ? dynamic.getLong(d + 8) : getUInt(dynamic, d + 4);
+            if (tag == DT_NULL) {
+                break;
+            } else if (tag == DT_NEEDED) {
+                neededOffsets.add(val);
+            } else if (tag == DT_SONAME) {
+                sonameOffset = val;
+            } else if (tag == DT_STRTAB) {
+                strtab = val;
+            } else if (tag == DT_STRSZ) {
+                strsz = val;
+            }
+        }
+        if (strtab < 0) {
+            return new ElfDynamicSection(null, new ArrayList<>());
+        }
+
+        // DT_STRTAB is a virtual address; map it back to a file offset through the loadable segments
+        long strOffset = -1;
+        for (long[] load : loads) {
+            if (strtab >= load[0] && strtab < load[0] + load[2]) {
+                strOffset = strtab - load[0] + load[1];
+                break;
+            }
+        }
+        if (strOffset < 0) {
+            throw new IOException("String table is not in a loadable segment");
+        }
+        ByteBuffer strings = region(file, strOffset, strsz, order);
+        List<String> needed = new ArrayList<>();
+        for (long offset : neededOffsets) {
+            needed.add(getString(strings, offset));
+        }
+        String soname = sonameOffset < 0 ? null : getString(strings, sonameOffset);
+        return new ElfDynamicSection(soname, needed);
+    }
+
+    /**
+     * Reads a region of a file.
+     *
+     * @throws EOFException if the region is not entirely inside the file
+     */
+    private static ByteBuffer region(FileChannel file, long offset, long size, ByteOrder order) throws IOException {
+        if (offset < 0 || size < 0 || size > Integer.MAX_VALUE || offset > file.size() - size) {
+            throw new EOFException("ELF file is truncated");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(order);
+        while (buffer.hasRemaining()) {
+            if (file.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("ELF file is truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static long getUInt(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    private static String getString(ByteBuffer strings, long offset) throws IOException {
+        if (offset < 0 || offset >= strings.limit()) {
+            throw new IOException("String offset is outside the string table");
+        }
+        int end = (int) offset;
+        while (end < strings.limit() && strings.get(end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end - (int) offset];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = strings.get((int) offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,64 @@
+package edu.wpi.first.wpilib.opencv.installer.modules;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The entries of an artifact that are needed by a set of OpenCV modules.
+ *
+ * @see ModuleSelector
+ */
+public final class ModuleSelection implements Predicate<String> {
+
+    private final Set<String> excluded;
+    private final int librariesKept;
+    private final int librariesTotal;
+    private final long bytesSaved;
+
+    ModuleSelection(Set<String> excluded, int librariesKept, int librariesTotal, long bytesSaved) {
+        this.excluded = Collections.unmodifiableSet(excluded);
+        this.librariesKept = librariesKept;
+        this.librariesTotal = librariesTotal;
+        this.bytesSaved = bytesSaved;
+    }
+
+    /**
+     * Checks if an entry should be installed. Everything except the libraries outside the dependency closure of the
+     * selected modules is installed.
+     *
+     * @param entryName the name of the entry in the artifact
+     */
+    @Override
+    public boolean test(String entryName) {
+        return !excluded.contains(entryName);
+    }
+
+    /**
+     * The number of libraries in the dependency closure of the selected modules.
+     */
+    public int getLibrariesKept() {
+        return librariesKept;
+    }
+
+    /**
+     * The number of libraries in the artifact.
+     */
+    public int getLibrariesTotal() {
+        return librariesTotal;
+    }
+
+    /**
+     * The uncompressed size of the libraries that won't be installed.
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Installing %d of %d libraries, saving %.1f KiB",
+                librariesKept, librariesTotal, bytesSaved / 1024.0);
+    }
+
+}
@@ -0,0 +1,161 @@
+package edu.wpi.first.wpilib.opencv.installer.modules;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Works out which shared libraries in an artifact are needed by a set of OpenCV modules, by following the
+ * {@code DT_NEEDED} entries of the modules' libraries through the rest of the artifact.
+ */
+@UtilityClass
+public class ModuleSelector {
+
+    private static final Pattern LIBRARY = Pattern.compile("^.*\\.(so(\\..*)?|dll|dylib)$");
+    private static final Pattern JNI_LIBRARY = Pattern.compile("^libopencv_java\\d*\\.so.*$");
+    private static final Pattern MODULE_LIBRARY = Pattern.compile("^libopencv_([^.]+)\\.so.*$");
+
+    /**
+     * Selects the libraries in an extracted artifact that are needed by the given modules. The JNI library is always
+     * selected if the artifact has one.
+     *
+     * @param tree    the directory the artifact was extracted into
+     * @param modules the names of the modules to install, e.g. "core", "imgproc"
+     *
+     * @return the selected libraries, or {@code null} if the artifact has libraries that aren't ELF shared objects and
+     * its dependencies can't be worked out
+     *
+     * @throws UnknownModuleException if the artifact has module libraries, but none for one of the modules
+     * @throws IOException            if the extracted files could not be read
+     */
+    public static ModuleSelection select(Path tree, Collection<String> modules) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(tree)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(f -> LIBRARY.matcher(f.getFileName().toString()).matches())
+                    .collect(Collectors.toList());
+        }
+        Map<String, Library> libraries = new HashMap<>();
+        for (Path file : files) {
+            // Name libraries the way the entries of the artifact are named, since that's what the selection tests
+            String entryName = tree.relativize(file).toString().replace(File.separatorChar, '/');
+            ElfDynamicSection dynamic = ElfDynamicSection.read(file);
+            if (dynamic == null) {
+                System.out.println("  " + entryName + " is not an ELF shared library, installing all modules");
+                return null;
+            }
+            libraries.put(entryName, new Library(entryName, Files.size(file), dynamic));
+        }
+
+        // Every alias of a library (e.g. libfoo.so, libfoo.so.3.1) shares a soname, which is what DT_NEEDED refers to
+        Map<String, List<Library>> bySoname = new HashMap<>();
+        Map<String, String> fileNameToSoname = new HashMap<>();
+        for (Library library : libraries.values()) {
+            bySoname.computeIfAbsent(library.soname, k -> new ArrayList<>()).add(library);
+            fileNameToSoname.put(fileName(library.entryName), library.soname);
+        }
+
+        // Artifacts with no module libraries of their own (e.g. a JNI library linked against everything statically)
+        // have nothing to select from, so only artifacts that do have them are checked for unknown modules
+        Set<String> available = availableModules(libraries.values());
+        Deque<String> queue = new ArrayDeque<>();
+        for (String module : modules) {
+            Pattern pattern = Pattern.compile("^libopencv_" + Pattern.quote(module) + "\\.so.*$");
+            boolean found = false;
+            for (Library library : libraries.values()) {
+                if (pattern.matcher(fileName(library.entryName)).matches()) {
+                    queue.add(library.soname);
+                    found = true;
+                }
+            }
+            if (!found && !available.isEmpty()) {
+                throw new UnknownModuleException("No library for module '" + module + "'. Available modules are "
+                        + available);
+            }
+        }
+        for (Library library : libraries.values()) {
+            if (JNI_LIBRARY.matcher(fileName(library.entryName)).matches()) {
+                queue.add(library.soname);
+            }
+        }
+
+        Set<String> closure = new HashSet<>();
+        while (!queue.isEmpty()) {
+            String soname = queue.poll();
+            if (!closure.add(soname)) {
+                continue;
+            }
+            for (Library library : bySoname.get(soname)) {
+                for (String needed : library.needed) {
+                    String dependency = bySoname.containsKey(needed) ? needed : fileNameToSoname.get(needed);
+                    // Anything not in the artifact (libc, libstdc++, ...) is provided by the system
+                    if (dependency != null) {
+                        queue.add(dependency);
+                    }
+                }
+            }
+        }
+
+        Set<String> excluded = new HashSet<>();
+        long bytesSaved = 0;
+        for (Library library : libraries.values()) {
+            if (!closure.contains(library.soname)) {
+                excluded.add(library.entryName);
+                bytesSaved += Math.max(library.size, 0);
+            }
+        }
+        return new ModuleSelection(excluded, libraries.size() - excluded.size(), libraries.size(), bytesSaved);
+    }
+
+    /**
+     * Gets the names of the modules that have a library in the artifact, in alphabetical order.
+     */
+    private static Set<String> availableModules(Collection<Library> libraries) {
+        Set<String> available = new TreeSet<>();
+        for (Library library : libraries) {
+            Matcher m = MODULE_LIBRARY.matcher(fileName(library.entryName));
+            if (m.matches() && !JNI_LIBRARY.matcher(fileName(library.entryName)).matches()) {
+                available.add(m.group(1));
+            }
+        }
+        return available;
+    }
+
+    private static String fileName(String entryName) {
+        return entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+
+    private static final class Library {
+
+        private final String entryName;
+        private final long size;
+        private final String soname;
+        private final List<String> needed;
+
+        Library(String entryName, long size, ElfDynamicSection dynamic) {
+            this.entryName = entryName;
+            this.size = size;
+            this.soname = dynamic.getSoname() == null ? fileName(entryName) : dynamic.getSoname();
+            this.needed = dynamic.getNeeded();
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package edu.wpi.first.wpilib.opencv.installer.modules;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an artifact has libraries for OpenCV modules, but none for a module that was asked for.
+ */
+public class UnknownModuleException extends IOException {
+
+    public UnknownModuleException(String message) {
+        super(message);
+    }
+
+}
@@ -2,6 +2,7 @@ package edu.wpi.first.wpilib.opencv.installer.platform;
 
 import edu.wpi.first.wpilib.opencv.installer.platform.linux.Linux32;
 import edu.wpi.first.wpilib.opencv.installer.platform.linux.Linux64;
+import edu.wpi.first.wpilib.opencv.installer.platform.linux.LinuxAarch64;
 import edu.wpi.first.wpilib.opencv.installer.platform.linux.LinuxArm;
 import edu.wpi.first.wpilib.opencv.installer.platform.linux.LinuxArmHf;
 import edu.wpi.first.wpilib.opencv.installer.platform.osx.Osx64;
@@ -81,6 +82,10 @@ public interface Platform {
         return LinuxArmHf.INSTANCE;
     }
 
+    static Platform linuxAarch64() {
+        return LinuxAarch64.INSTANCE;
+    }
+
     static Platform osx64() {
         return Osx64.INSTANCE;
     }
@@ -112,6 +117,8 @@ public interface Platform {
                 return linuxArm();
             case LinuxArmHf.NAME:
                 return linuxArmHf();
+            case LinuxAarch64.NAME:
+                return linuxAarch64();
             case Osx64.NAME:
                 return osx64();
             case Windows32.NAME:
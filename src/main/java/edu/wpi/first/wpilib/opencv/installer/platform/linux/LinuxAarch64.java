@@ -0,0 +1,19 @@
+package edu.wpi.first.wpilib.opencv.installer.platform.linux;
+
+/**
+ * Platform for 64-bit ARM Linux.
+ */
+public final class LinuxAarch64 extends Linux {
+
+    public static final LinuxAarch64 INSTANCE = new LinuxAarch64();
+    public static final String NAME = "linux-aarch64";
+
+    private LinuxAarch64() {
+
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
@@ -0,0 +1,36 @@
+package edu.wpi.first.wpilib.opencv.installer.io;
+
+/**
+ * Chooses the {@link IoBackend} for the running JVM. This is the Java 21 version of this class, which prefers the
+ * virtual thread backend. The Java 21 classes are compiled without annotation processing, so this doesn't use lombok.
+ */
+public final class IoBackends {
+
+    /**
+     * Set this system property to "platform" to always use platform threads.
+     */
+    public static final String BACKEND_PROPERTY = "opencv.installer.backend";
+
+    private IoBackends() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Gets the best I/O backend for the running JVM. On Java 21 and newer that is the virtual thread backend, unless
+     * the {@value #BACKEND_PROPERTY} system property is set to "platform".
+     */
+    public static IoBackend preferred() {
+        if ("platform".equals(System.getProperty(BACKEND_PROPERTY))) {
+            return platformThreads();
+        }
+        return VirtualThreadBackend.INSTANCE;
+    }
+
+    /**
+     * Gets the backend that runs I/O on a bounded pool of platform threads. This is available on every JVM.
+     */
+    public static IoBackend platformThreads() {
+        return PlatformThreadBackend.INSTANCE;
+    }
+
+}
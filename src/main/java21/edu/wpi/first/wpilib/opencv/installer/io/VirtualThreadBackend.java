@@ -0,0 +1,64 @@
+package edu.wpi.first.wpilib.opencv.installer.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every I/O task on its own virtual thread and downloads with {@link HttpClient}. Blocking in a task only parks
+ * its virtual thread, so installs of many small files aren't limited by the size of a thread pool.
+ */
+final class VirtualThreadBackend implements IoBackend {
+
+    static final VirtualThreadBackend INSTANCE = new VirtualThreadBackend();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private VirtualThreadBackend() {
+    }
+
+    @Override
+    public String getName() {
+        return "virtual threads";
+    }
+
+    @Override
+    public ExecutorService newExecutor(int concurrency) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("opencv-io-", 0).factory());
+    }
+
+    @Override
+    public Response get(URL url) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(HttpRequest.newBuilder(url.toURI()).GET().build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URL: " + url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting " + url);
+        }
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            response.body().close();
+            if (status == 404) {
+                throw new FileNotFoundException(url.toString());
+            }
+            throw new IOException("Server returned HTTP " + status + " for " + url);
+        }
+        return new Response(response.body(), response.headers().firstValueAsLong("Content-Length").orElse(-1));
+    }
+
+}
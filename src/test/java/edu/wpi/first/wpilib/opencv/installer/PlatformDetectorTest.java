@@ -0,0 +1,49 @@
+package edu.wpi.first.wpilib.opencv.installer;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class PlatformDetectorTest {
+
+    private static final String AVX2 = "flags\t\t: fpu sse sse2 ssse3 sse4_1 sse4_2 avx avx2 fma f16c";
+    private static final String AVX512 = AVX2 + " avx512f avx512cd avx512bw avx512dq avx512vl";
+
+    @Test
+    public void testX86() {
+        assertEquals(Arrays.asList("avx512", "avx2"),
+                PlatformDetector.parseCpuFeatures("x86_64", Arrays.asList("processor\t: 0", AVX512)));
+    }
+
+    @Test
+    public void testOnlyFeaturesOfEveryProcessor() {
+        assertEquals(Collections.singletonList("avx2"), PlatformDetector.parseCpuFeatures("x86_64",
+                Arrays.asList("processor\t: 0", AVX512, "", "processor\t: 1", AVX2)));
+    }
+
+    @Test
+    public void testMissingFlags() {
+        assertEquals(Collections.emptyList(), PlatformDetector.parseCpuFeatures("x86_64",
+                Collections.singletonList("flags\t\t: fpu sse sse2 avx avx2")));
+        assertEquals(Collections.emptyList(), PlatformDetector.parseCpuFeatures("x86_64",
+                Collections.singletonList("model name\t: Some CPU")));
+    }
+
+    @Test
+    public void testArm() {
+        assertEquals(Collections.singletonList("neon"), PlatformDetector.parseCpuFeatures("armhf",
+                Collections.singletonList("Features\t: half thumb fastmult vfp edsp neon vfpv3 tls")));
+        assertEquals(Collections.singletonList("neon"), PlatformDetector.parseCpuFeatures("arm",
+                Collections.singletonList("Features\t: fp asimd evtstrm crc32 cpuid")));
+    }
+
+    @Test
+    public void testFlagsOfOtherArchitecturesAreIgnored() {
+        assertEquals(Collections.emptyList(), PlatformDetector.parseCpuFeatures("armhf",
+                Collections.singletonList(AVX512)));
+    }
+
+}
@@ -0,0 +1,116 @@
+package edu.wpi.first.wpilib.opencv.installer.archive;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class IndexedArchiveTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path a = write("a.txt", "hello");
+        Path b = write("b.bin", "");
+        Path archiveFile = temp.getRoot().toPath().resolve("test.ocvpack");
+        new IndexedArchiveWriter()
+                .add("lib/a.txt", a)
+                .add("empty", b)
+                .write(archiveFile);
+
+        try (IndexedArchive archive = IndexedArchive.open(archiveFile)) {
+            List<String> names = new ArrayList<>();
+            archive.getEntries().forEach(e -> names.add(e.getName()));
+            assertEquals(Arrays.asList("lib/a.txt", "empty"), names);
+
+            ArchiveEntry entry = archive.getEntry("lib/a.txt");
+            assertNotNull(entry);
+            assertEquals(5, entry.getSize());
+            ByteBuffer data = archive.map(entry);
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            assertEquals("hello", new String(bytes, StandardCharsets.UTF_8));
+
+            Path extracted = temp.getRoot().toPath().resolve("out/a.txt");
+            archive.extract(entry, extracted);
+            assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(extracted));
+
+            assertEquals(0, archive.getEntry("empty").getSize());
+            assertNull(archive.getEntry("missing"));
+        }
+    }
+
+    @Test
+    public void testNotAnArchive() throws IOException {
+        assertCorrupt(write("not-an-archive", "PK\u0003\u0004 this is a zip file"), "Not an indexed archive");
+    }
+
+    @Test
+    public void testEntryCountLargerThanFile() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(IndexedArchive.MAGIC.length + Integer.BYTES);
+        header.put(IndexedArchive.MAGIC).putInt(1_000_000);
+        assertCorrupt(write("huge-count", header.array()), "Corrupt archive index");
+    }
+
+    @Test
+    public void testNameLongerThanIndex() throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(IndexedArchive.MAGIC.length + Integer.BYTES + 64);
+        index.put(IndexedArchive.MAGIC).putInt(1).putShort((short) 0xFFFF);
+        assertCorrupt(write("long-name", index.array()), "Corrupt archive index");
+    }
+
+    @Test
+    public void testEntryOutsideFile() throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(IndexedArchive.MAGIC.length + Integer.BYTES + 2 + 1 + 16
+                + IndexedArchive.HASH_SIZE);
+        index.put(IndexedArchive.MAGIC).putInt(1).putShort((short) 1).put((byte) 'a')
+                .putLong(Long.MAX_VALUE).putLong(Long.MAX_VALUE);
+        assertCorrupt(write("outside", index.array()), "Corrupt archive index");
+    }
+
+    @Test
+    public void testTruncatedArchive() throws IOException {
+        Path source = write("a.txt", "hello");
+        Path archiveFile = temp.getRoot().toPath().resolve("truncated.ocvpack");
+        new IndexedArchiveWriter().add("a.txt", source).write(archiveFile);
+        byte[] bytes = Files.readAllBytes(archiveFile);
+        assertCorrupt(write("truncated", Arrays.copyOf(bytes, bytes.length - 10)), "Corrupt archive index");
+    }
+
+    private Path write(String name, String contents) throws IOException {
+        return write(name, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path write(String name, byte[] contents) throws IOException {
+        Path file = temp.getRoot().toPath().resolve(name);
+        Files.write(file, contents);
+        return file;
+    }
+
+    private static void assertCorrupt(Path file, String message) {
+        try (IndexedArchive ignored = IndexedArchive.open(file)) {
+            fail("Opened a corrupt archive: " + file);
+        } catch (IOException e) {
+            if (!e.getMessage().startsWith(message)) {
+                fail("Unexpected message: " + e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package edu.wpi.first.wpilib.opencv.installer.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExtractionCacheTest {
+
+    /**
+     * The size of every extracted tree.
+     */
+    private static final int TREE_SIZE = 4;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final AtomicInteger extractions = new AtomicInteger();
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws IOException, InterruptedException {
+        Path root = temp.getRoot().toPath().resolve("cache");
+        ExtractionCache cache = new ExtractionCache(root, 2 * TREE_SIZE);
+        Path a = archive("a");
+        Path b = archive("b");
+        Path c = archive("c");
+
+        Path treeA = use(cache, "a", a);
+        Path treeB = use(cache, "b", b);
+        // Using a again makes b the least recently used
+        use(cache, "a", a);
+        assertEquals(2, extractions.get());
+        Path treeC = use(cache, "c", c);
+
+        assertTrue(Files.isDirectory(treeA));
+        assertFalse(Files.isDirectory(treeB));
+        assertTrue(Files.isDirectory(treeC));
+        use(cache, "b", b);
+        assertEquals(4, extractions.get());
+        assertFalse(Files.isDirectory(treeA));
+    }
+
+    @Test
+    public void testLeasedTreesAreNotEvicted() throws IOException, InterruptedException {
+        ExtractionCache cache = new ExtractionCache(temp.getRoot().toPath().resolve("cache"), 0);
+        try (ExtractionCache.Lease lease = cache.acquire("a", archive("a"), this::extract)) {
+            Path treeB = use(cache, "b", archive("b"));
+            use(cache, "c", archive("c"));
+            assertTrue(Files.isDirectory(lease.getTree()));
+            assertFalse(Files.isDirectory(treeB));
+        }
+    }
+
+    @Test
+    public void testLeaseInAnotherProcess() throws IOException, InterruptedException {
+        Path root = temp.getRoot().toPath().resolve("cache");
+        Path a = archive("a");
+        Process holder = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", location(ExtractionCacheTest.class) + File.pathSeparator + location(ExtractionCache.class),
+                LeaseHolder.class.getName(), root.toString(), a.toString())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BufferedReader out = new BufferedReader(new InputStreamReader(holder.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = out.readLine()) != null && !line.equals(LeaseHolder.LEASED)) {
+                System.out.println("  " + line);
+            }
+            assertEquals("The other process did not lease the tree", LeaseHolder.LEASED, line);
+
+            ExtractionCache cache = new ExtractionCache(root, 0);
+            Path treeA = use(cache, "a", a);
+            assertEquals("The tree extracted by the other process was not reused", 0, extractions.get());
+            use(cache, "b", archive("b"));
+            assertTrue("A tree leased by another process was evicted", Files.isDirectory(treeA));
+
+            // Closing its input makes the other process close its lease and exit
+            holder.getOutputStream().close();
+            assertTrue(holder.waitFor(30, TimeUnit.SECONDS));
+            use(cache, "c", archive("c"));
+            assertFalse(Files.isDirectory(treeA));
+        } finally {
+            holder.destroy();
+        }
+    }
+
+    /**
+     * Leases and then closes a tree, returning the path of the tree.
+     */
+    private Path use(ExtractionCache cache, String coordinates, Path archive) throws IOException, InterruptedException {
+        // Spread out the last use times of the trees
+        Thread.sleep(10);
+        try (ExtractionCache.Lease lease = cache.acquire(coordinates, archive, this::extract)) {
+            return lease.getTree();
+        }
+    }
+
+    private void extract(Path archive, Path dstDir) throws IOException {
+        extractions.incrementAndGet();
+        copy(archive, dstDir);
+    }
+
+    private static void copy(Path archive, Path dstDir) throws IOException {
+        Files.createDirectories(dstDir);
+        Files.copy(archive, dstDir.resolve("contents"));
+    }
+
+    private Path archive(String name) throws IOException {
+        Path archive = temp.getRoot().toPath().resolve(name + ".jar");
+        if (!Files.exists(archive)) {
+            Files.write(archive, (name + name + name + name).getBytes(StandardCharsets.UTF_8));
+        }
+        return archive;
+    }
+
+    private static String location(Class<?> type) {
+        try {
+            return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not find the classes of " + type, e);
+        }
+    }
+
+    /**
+     * Holds a lease on a tree in its own process until its input is closed.
+     */
+    public static final class LeaseHolder {
+
+        static final String LEASED = "leased";
+
+        public static void main(String[] args) throws IOException {
+            ExtractionCache cache = new ExtractionCache(Paths.get(args[0]), Long.MAX_VALUE);
+            try (ExtractionCache.Lease lease = cache.acquire("a", Paths.get(args[1]), ExtractionCacheTest::copy)) {
+                System.out.println(LEASED);
+                while (System.in.read() >= 0) {
+                    // Wait for the test to close the input
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package edu.wpi.first.wpilib.opencv.installer.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SharedFilesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testPublish() throws IOException {
+        Path dst = temp.getRoot().toPath().resolve("repo/a.jar");
+        assertTrue(SharedFiles.publish(dst, tmp -> write(tmp, "first")));
+        assertFalse(SharedFiles.publish(dst, tmp -> fail("An existing file should be reused")));
+        assertEquals("first", read(dst));
+        assertFalse(Files.exists(part(dst)));
+    }
+
+    @Test
+    public void testFailedPublish() throws IOException {
+        Path dst = temp.getRoot().toPath().resolve("repo/a.jar");
+        try {
+            SharedFiles.publish(dst, tmp -> {
+                write(tmp, "partial");
+                throw new IOException("Connection reset");
+            });
+            fail("The producer failed");
+        } catch (IOException e) {
+            assertEquals("Connection reset", e.getMessage());
+        }
+        assertFalse(Files.exists(dst));
+        assertFalse(Files.exists(part(dst)));
+    }
+
+    @Test
+    public void testPartLeftBehind() throws IOException {
+        Path dst = temp.getRoot().toPath().resolve("repo/a.jar");
+        // An installer that was killed while producing the file doesn't clean up after itself
+        write(part(dst), "partial");
+        Path source = temp.getRoot().toPath().resolve("a.jar");
+        write(source, "complete");
+
+        assertTrue(SharedFiles.publish(dst, tmp -> Files.copy(source, tmp)));
+        assertEquals("complete", read(dst));
+        assertFalse(Files.exists(part(dst)));
+    }
+
+    private static Path part(Path dst) {
+        return dst.resolveSibling(dst.getFileName() + ".part");
+    }
+
+    private static void write(Path file, String contents) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+}
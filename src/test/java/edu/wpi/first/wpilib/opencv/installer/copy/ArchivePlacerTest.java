@@ -0,0 +1,118 @@
+package edu.wpi.first.wpilib.opencv.installer.copy;
+
+import edu.wpi.first.wpilib.opencv.installer.archive.ArchiveEntry;
+import edu.wpi.first.wpilib.opencv.installer.archive.IndexedArchive;
+import edu.wpi.first.wpilib.opencv.installer.archive.Repacker;
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackends;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArchivePlacerTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testPlaceRepackedJar() throws IOException {
+        Path packed = repack();
+        Path dst = temp.getRoot().toPath().resolve("dst");
+        try (IndexedArchive archive = IndexedArchive.open(packed)) {
+            CopySummary summary = new ArchivePlacer(false, 4, IoBackends.platformThreads())
+                    .place(archive, name -> true, dst);
+            assertFalse(summary.hasErrors());
+            assertEquals(3, summary.getFilesCopied());
+        }
+        assertEquals("core", read(dst.resolve("lib/libopencv_core.so")));
+        assertEquals("imgproc", read(dst.resolve("lib/libopencv_imgproc.so")));
+        assertFalse(Files.exists(dst.resolve("META-INF")));
+    }
+
+    @Test
+    public void testHashMismatchIsReportedPerEntry() throws IOException {
+        Path packed = repack();
+        try (IndexedArchive archive = IndexedArchive.open(packed)) {
+            corrupt(packed, archive.getEntry("lib/libopencv_imgproc.so"));
+        }
+        Path dst = temp.getRoot().toPath().resolve("dst");
+        write(dst.resolve("lib/libopencv_imgproc.so"), "old");
+
+        CopySummary summary;
+        try (IndexedArchive archive = IndexedArchive.open(packed)) {
+            summary = new ArchivePlacer(true, 4, IoBackends.platformThreads()).place(archive, name -> true, dst);
+        }
+
+        assertEquals(1, summary.getErrors().size());
+        Map.Entry<Path, IOException> error = summary.getErrors().get(0);
+        assertEquals(dst.resolve("lib/libopencv_imgproc.so"), error.getKey());
+        assertTrue(error.getValue().getMessage(), error.getValue().getMessage().contains("Checksum mismatch"));
+        // The other entries are still placed, and the corrupt one doesn't replace the file that was there
+        assertEquals(2, summary.getFilesCopied());
+        assertEquals("core", read(dst.resolve("lib/libopencv_core.so")));
+        assertEquals("old", read(dst.resolve("lib/libopencv_imgproc.so")));
+        try (Stream<Path> files = Files.list(dst.resolve("lib"))) {
+            assertFalse("A partial file was left behind", files.anyMatch(f -> f.toString().endsWith(".part")));
+        }
+    }
+
+    /**
+     * Repacks a jar of native libraries into an indexed archive.
+     */
+    private Path repack() throws IOException {
+        Path jar = temp.getRoot().toPath().resolve("opencv-natives.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            add(zip, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n");
+            add(zip, "lib/libopencv_core.so", "core");
+            add(zip, "lib/libopencv_imgproc.so", "imgproc");
+            add(zip, "include/opencv2/core.hpp", "#pragma once\n");
+        }
+        Path packed = temp.getRoot().toPath().resolve("opencv-natives.ocvpack");
+        assertEquals(3, Repacker.repack(jar, packed));
+        return packed;
+    }
+
+    private static void add(ZipOutputStream zip, String name, String contents) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(contents.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    /**
+     * Flips the first byte of the data of an entry, leaving its hash in the index alone.
+     */
+    private static void corrupt(Path archive, ArchiveEntry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, entry.getOffset());
+            b.put(0, (byte) ~b.get(0));
+            b.rewind();
+            channel.write(b, entry.getOffset());
+        }
+    }
+
+    private static void write(Path file, String contents) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+}
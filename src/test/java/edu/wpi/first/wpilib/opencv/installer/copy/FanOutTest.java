@@ -0,0 +1,96 @@
+package edu.wpi.first.wpilib.opencv.installer.copy;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FanOutTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testSecondRootIsLinked() throws IOException {
+        List<Path> roots = roots();
+        FanOut fanOut = new FanOut(roots, true);
+        // Replaced by the link, since overwriting is enabled
+        write(roots.get(1).resolve("lib/a.so"), "old");
+        List<Path> written = new ArrayList<>();
+
+        fanOut.write(targets(roots, "lib/a.so"), dst -> {
+            written.add(dst);
+            return write(dst, "new");
+        });
+
+        assertEquals(Arrays.asList(roots.get(0).resolve("lib/a.so")), written);
+        assertEquals(1, fanOut.filesCopied.get());
+        assertEquals(1, fanOut.filesLinked.get());
+        assertEquals(3, fanOut.bytesCopied.get());
+        assertTrue(Files.isSameFile(roots.get(0).resolve("lib/a.so"), roots.get(1).resolve("lib/a.so")));
+    }
+
+    @Test
+    public void testCopiedWhenLinkingFails() throws IOException {
+        List<Path> roots = roots();
+        FanOut fanOut = new FanOut(roots, false);
+        List<Path> written = new ArrayList<>();
+
+        // Directories can never be hard linked, so the second root can't link to the first one
+        fanOut.write(targets(roots, "share/data"), dst -> {
+            written.add(dst);
+            Files.createDirectories(dst);
+            return 0;
+        });
+
+        assertEquals(targets(roots, "share/data"), written);
+        assertEquals(2, fanOut.filesCopied.get());
+        assertEquals(0, fanOut.filesLinked.get());
+        assertTrue(Files.isDirectory(roots.get(1).resolve("share/data")));
+    }
+
+    @Test
+    public void testExistingFilesAreSkipped() throws IOException {
+        List<Path> roots = roots();
+        FanOut fanOut = new FanOut(roots, false);
+        write(roots.get(0).resolve("a.so"), "old");
+
+        fanOut.write(targets(roots, "a.so"), dst -> write(dst, "new"));
+
+        assertEquals(1, fanOut.filesSkipped.get());
+        assertEquals(1, fanOut.filesCopied.get());
+        assertEquals("old", new String(Files.readAllBytes(roots.get(0).resolve("a.so")), StandardCharsets.UTF_8));
+        assertEquals("new", new String(Files.readAllBytes(roots.get(1).resolve("a.so")), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Two roots on the same file system, which aren't created yet.
+     */
+    private List<Path> roots() {
+        return Arrays.asList(temp.getRoot().toPath().resolve("first"), temp.getRoot().toPath().resolve("second"));
+    }
+
+    private static List<Path> targets(List<Path> roots, String name) {
+        List<Path> targets = new ArrayList<>();
+        for (Path root : roots) {
+            targets.add(root.resolve(name));
+        }
+        return targets;
+    }
+
+    private static long write(Path file, String contents) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.size(Files.write(file, contents.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,82 @@
+package edu.wpi.first.wpilib.opencv.installer.copy;
+
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackends;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TreeCopierTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testCopy() throws IOException {
+        Path src = temp.newFolder("src").toPath();
+        write(src.resolve("a.txt"), "a");
+        write(src.resolve("lib/b.so"), "bb");
+        Path dst = temp.getRoot().toPath().resolve("dst");
+
+        CopySummary summary = new TreeCopier(false, 4, IoBackends.platformThreads()).copy(src, dst);
+
+        assertFalse(summary.hasErrors());
+        assertEquals(2, summary.getFilesCopied());
+        assertEquals(3, summary.getBytesCopied());
+        assertEquals(2, summary.getDirectories());
+        assertEquals("bb", new String(Files.readAllBytes(dst.resolve("lib/b.so")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testErrorsAreCollected() throws IOException {
+        Path src = temp.newFolder("src").toPath();
+        write(src.resolve("a.txt"), "a");
+        write(src.resolve("blocked.txt"), "b");
+        write(src.resolve("lib/c.so"), "c");
+        write(src.resolve("include/d.h"), "d");
+        Path dst = temp.getRoot().toPath().resolve("dst");
+        // A directory that can't be replaced by a file, and a file that can't be replaced by a directory
+        write(dst.resolve("blocked.txt/keep"), "");
+        write(dst.resolve("include"), "");
+
+        CopySummary summary = new TreeCopier(true, 4, IoBackends.platformThreads()).copy(src, dst);
+
+        assertTrue(summary.hasErrors());
+        Set<Path> failed = new HashSet<>();
+        for (Map.Entry<Path, IOException> error : summary.getErrors()) {
+            failed.add(error.getKey());
+        }
+        Set<Path> expected = new HashSet<>();
+        expected.add(src.resolve("blocked.txt"));
+        expected.add(src.resolve("include"));
+        assertEquals(expected, failed);
+        // The rest of the tree is still copied
+        assertEquals(2, summary.getFilesCopied());
+        assertTrue(Files.exists(dst.resolve("a.txt")));
+        assertTrue(Files.exists(dst.resolve("lib/c.so")));
+        try {
+            summary.throwIfFailed();
+            fail("The copy had errors");
+        } catch (IOException e) {
+            assertEquals(2, e.getSuppressed().length);
+        }
+    }
+
+    private static void write(Path file, String contents) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,82 @@
+package edu.wpi.first.wpilib.opencv.installer.deps;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class DependencyGraphTest {
+
+    private static final Dependency ROOT = Dependency.parse("org.opencv:opencv-natives:3.1.0");
+    private static final Dependency A = Dependency.parse("org.example:a:1.0");
+    private static final Dependency B = Dependency.parse("org.example:b:1.0");
+    private static final Dependency C_1 = Dependency.parse("org.example:c:1.0");
+    private static final Dependency C_2 = Dependency.parse("org.example:c:2.0");
+    private static final Dependency D_1 = Dependency.parse("org.example:d:1.0");
+    private static final Dependency D_2 = Dependency.parse("org.example:d:2.0");
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testNearestWins() {
+        DependencyGraph graph = new DependencyGraph("https://example.com", ROOT);
+        graph.add(ROOT, Arrays.asList(A, C_2));
+        graph.add(A, Collections.singletonList(C_1));
+        graph.add(C_2, Collections.emptyList());
+        graph.add(C_1, Collections.emptyList());
+        assertEquals(Arrays.asList(A, C_2), graph.resolve());
+    }
+
+    @Test
+    public void testFirstDeclaredWinsAtTheSameDepth() {
+        DependencyGraph graph = createGraph();
+        assertEquals(Arrays.asList(A, B, D_1), graph.resolve());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        DependencyGraph graph = createGraph();
+        Path file = temp.getRoot().toPath().resolve("test.deps");
+        graph.write(file);
+
+        DependencyGraph read = DependencyGraph.read(file);
+        assertEquals(graph.getRepository(), read.getRepository());
+        assertEquals(ROOT, read.getRoot());
+        assertEquals(graph.getArtifacts(), read.getArtifacts());
+        assertEquals(graph.resolve(), read.resolve());
+    }
+
+    @Test
+    public void testParseCoordinates() {
+        Dependency tbb = Dependency.parse("org.tbb:tbb:4.4:linux-x86_64@zip");
+        assertEquals(new Dependency("org.tbb", "tbb", "4.4", "linux-x86_64", "zip"), tbb);
+        assertEquals("org.tbb:tbb:4.4:linux-x86_64@zip", tbb.toString());
+        assertEquals("jar", A.getType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedCoordinates() {
+        Dependency.parse("org.example:a");
+    }
+
+    /**
+     * Creates a graph where the root depends on A and B, which both depend on a different version of D.
+     */
+    private static DependencyGraph createGraph() {
+        DependencyGraph graph = new DependencyGraph("https://example.com", ROOT);
+        graph.add(ROOT, Arrays.asList(A, B));
+        graph.add(A, Collections.singletonList(D_1));
+        graph.add(B, Collections.singletonList(D_2));
+        graph.add(D_1, Collections.emptyList());
+        graph.add(D_2, Collections.emptyList());
+        return graph;
+    }
+
+}
@@ -0,0 +1,88 @@
+package edu.wpi.first.wpilib.opencv.installer.deps;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class PomParserTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testExpandsProperties() throws IOException {
+        Path pom = write(
+                "<properties><tbb.version>4.4</tbb.version></properties>",
+                "<dependencies>",
+                dependency("org.tbb", "tbb", "${tbb.version}", "<classifier>linux-x86_64</classifier><type>zip</type>"),
+                dependency("${project.groupId}", "opencv-headers", "${project.version}", ""),
+                "</dependencies>");
+        assertEquals(Arrays.asList(
+                new Dependency("org.tbb", "tbb", "4.4", "linux-x86_64", "zip"),
+                new Dependency("org.opencv", "opencv-headers", "3.1.0", null, null)
+        ), PomParser.parseDependencies(pom));
+    }
+
+    @Test
+    public void testManagedVersions() throws IOException {
+        Path pom = write(
+                "<dependencyManagement><dependencies>",
+                dependency("org.tbb", "tbb", "4.4", ""),
+                "</dependencies></dependencyManagement>",
+                "<dependencies>",
+                "<dependency><groupId>org.tbb</groupId><artifactId>tbb</artifactId></dependency>",
+                "</dependencies>");
+        assertEquals(Collections.singletonList(new Dependency("org.tbb", "tbb", "4.4", null, null)),
+                PomParser.parseDependencies(pom));
+    }
+
+    @Test
+    public void testSkipsScopesNotNeededAtRuntime() throws IOException {
+        Path pom = write(
+                "<dependencies>",
+                dependency("junit", "junit", "4.12", "<scope>test</scope>"),
+                dependency("org.example", "provided", "1.0", "<scope>provided</scope>"),
+                dependency("org.example", "optional", "1.0", "<optional>true</optional>"),
+                dependency("org.example", "runtime", "1.0", "<scope>runtime</scope>"),
+                "</dependencies>");
+        assertEquals(Collections.singletonList(new Dependency("org.example", "runtime", "1.0", null, null)),
+                PomParser.parseDependencies(pom));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingVersion() throws IOException {
+        PomParser.parseDependencies(write(
+                "<dependencies>",
+                "<dependency><groupId>org.tbb</groupId><artifactId>tbb</artifactId></dependency>",
+                "</dependencies>"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformed() throws IOException {
+        Path pom = temp.getRoot().toPath().resolve("malformed.pom");
+        Files.write(pom, "<project>".getBytes(StandardCharsets.UTF_8));
+        PomParser.parseDependencies(pom);
+    }
+
+    private static String dependency(String groupId, String artifactId, String version, String extra) {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId>"
+                + "<version>" + version + "</version>" + extra + "</dependency>";
+    }
+
+    private Path write(String... body) throws IOException {
+        Path pom = temp.getRoot().toPath().resolve("test.pom");
+        Files.write(pom, ("<project><groupId>org.opencv</groupId><artifactId>opencv-natives</artifactId>"
+                + "<version>3.1.0</version>" + String.join("", body) + "</project>").getBytes(StandardCharsets.UTF_8));
+        return pom;
+    }
+
+}
@@ -0,0 +1,94 @@
+package edu.wpi.first.wpilib.opencv.installer.download;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxLimitMustBePositive() {
+        new AdaptiveConcurrencyLimiter(1, 0);
+    }
+
+    @Test
+    public void testInitialLimitIsClamped() {
+        assertEquals(1, new AdaptiveConcurrencyLimiter(0, 4).getLimit());
+        assertEquals(4, new AdaptiveConcurrencyLimiter(10, 4).getLimit());
+        assertEquals(2, new AdaptiveConcurrencyLimiter(2, 4).getLimit());
+    }
+
+    @Test
+    public void testGrowsWhileThroughputImproves() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 3);
+        runWindow(limiter, 2, 1024, true);
+        assertEquals(3, limiter.getLimit());
+        runWindow(limiter, 3, 1024 * 1024, true);
+        // Never grows past the maximum
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void testFailureHalvesLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4);
+        limiter.acquire();
+        limiter.acquire();
+        limiter.acquire();
+        limiter.acquire();
+        limiter.release(1024, true);
+        limiter.release(1024, false);
+        limiter.release(1024, true);
+        limiter.release(1024, true);
+        assertEquals(2, limiter.getLimit());
+        runWindow(limiter, 2, 0, false);
+        runWindow(limiter, 1, 0, false);
+        // Never drops below one
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void testReleaseWithoutSampleDoesNotAdjust() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 4);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release();
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testAcquireBlocksAtLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1);
+        limiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        limiter.release(0, true);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+    }
+
+    private static void runWindow(AdaptiveConcurrencyLimiter limiter, int transfers, long bytes, boolean success)
+            throws InterruptedException {
+        for (int i = 0; i < transfers; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < transfers; i++) {
+            limiter.release(bytes, success);
+        }
+    }
+
+}
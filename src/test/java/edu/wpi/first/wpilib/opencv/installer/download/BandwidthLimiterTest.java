@@ -0,0 +1,52 @@
+package edu.wpi.first.wpilib.opencv.installer.download;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+public class BandwidthLimiterTest {
+
+    @Test
+    public void testUnlimitedNeverBlocks() throws InterruptedException {
+        BandwidthLimiter limiter = new BandwidthLimiter(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire(Integer.MAX_VALUE);
+        }
+        assertTrue(elapsedMillis(start) < 500);
+    }
+
+    @Test
+    public void testFullBucketDoesNotBlock() throws InterruptedException {
+        BandwidthLimiter limiter = new BandwidthLimiter(100_000);
+        long start = System.nanoTime();
+        limiter.acquire(100_000);
+        assertTrue(elapsedMillis(start) < 200);
+    }
+
+    @Test
+    public void testEmptyBucketWaitsForRefill() throws InterruptedException {
+        BandwidthLimiter limiter = new BandwidthLimiter(100_000);
+        limiter.acquire(100_000);
+        long start = System.nanoTime();
+        // Half a second's worth of bytes on an empty bucket
+        limiter.acquire(50_000);
+        assertTrue(elapsedMillis(start) >= 400);
+    }
+
+    @Test
+    public void testOversizedRequestRunsIntoDebt() throws InterruptedException {
+        BandwidthLimiter limiter = new BandwidthLimiter(100_000);
+        long start = System.nanoTime();
+        // The bucket holds one second's worth, so the extra half second is waited out
+        limiter.acquire(150_000);
+        assertTrue(elapsedMillis(start) >= 400);
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+}
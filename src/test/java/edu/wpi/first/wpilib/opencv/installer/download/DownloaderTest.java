@@ -0,0 +1,102 @@
+package edu.wpi.first.wpilib.opencv.installer.download;
+
+import edu.wpi.first.wpilib.opencv.installer.io.IoBackend;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DownloaderTest {
+
+    private static final byte[] DATA = {1, 2, 3, 4};
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testMissingFilesDontLowerTheLimit() throws IOException, InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4);
+        // A fast window, so a window of empty transfers would look like throughput dropped
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < 4; i++) {
+            limiter.release(1 << 20, true);
+        }
+        Downloader downloader = new Downloader(new FakeBackend(Integer.MAX_VALUE, true), new BandwidthLimiter(0), limiter);
+        for (int i = 0; i < 8; i++) {
+            try {
+                downloader.download(new URL("http://example.com/missing" + i), temp.getRoot().toPath().resolve("dst"));
+                fail("Downloaded a missing file");
+            } catch (FileNotFoundException expected) {
+                // Probing for files that may not exist
+            }
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void testRetriesDontCountAsFailures() throws IOException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 2);
+        FakeBackend backend = new FakeBackend(2, false);
+        Downloader downloader = new Downloader(backend, new BandwidthLimiter(0), limiter);
+        Path dst = temp.getRoot().toPath().resolve("dst");
+        assertEquals(DATA.length, downloader.download(new URL("http://example.com/flaky"), dst));
+        assertArrayEquals(DATA, Files.readAllBytes(dst));
+        assertEquals(3, backend.requests.get());
+        // Two failed attempts would fill a window and halve the limit if each counted as a failure
+        assertEquals(2, limiter.getLimit());
+    }
+
+    /**
+     * A backend that fails the first requests, then serves {@link #DATA}.
+     */
+    private static final class FakeBackend implements IoBackend {
+
+        private final int failures;
+        private final boolean missing;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        /**
+         * @param failures the number of requests to fail
+         * @param missing  true to fail with a 404, false to fail with a broken connection
+         */
+        FakeBackend(int failures, boolean missing) {
+            this.failures = failures;
+            this.missing = missing;
+        }
+
+        @Override
+        public String getName() {
+            return "fake";
+        }
+
+        @Override
+        public ExecutorService newExecutor(int concurrency) {
+            return Executors.newFixedThreadPool(concurrency);
+        }
+
+        @Override
+        public Response get(URL url) throws IOException {
+            if (requests.incrementAndGet() <= failures) {
+                throw missing ? new FileNotFoundException(url.toString()) : new IOException("Connection reset");
+            }
+            return new Response(new ByteArrayInputStream(DATA), DATA.length);
+        }
+
+    }
+
+}
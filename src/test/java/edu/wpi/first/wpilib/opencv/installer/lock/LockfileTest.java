@@ -0,0 +1,149 @@
+package edu.wpi.first.wpilib.opencv.installer.lock;
+
+import edu.wpi.first.wpilib.opencv.installer.ArtifactType;
+import edu.wpi.first.wpilib.opencv.installer.Installer;
+import edu.wpi.first.wpilib.opencv.installer.platform.linux.Linux64;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LockfileTest {
+
+    private static final String HASH = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    static {
+        // The installer keeps its local maven repository and caches in the home directory it starts with
+        try {
+            System.setProperty("user.home", Files.createTempDirectory("lockfile-test-home").toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        LockedArtifact java = new LockedArtifact("opencv-java", "3.1.0", null, 123, HASH,
+                "https://example.com/opencv-java-3.1.0.jar");
+        LockedArtifact natives = new LockedArtifact("opencv-natives", "3.1.0", "linux-x86_64", 456, HASH,
+                "https://example.com/opencv-natives-3.1.0-linux-x86_64.jar");
+        Lockfile lockfile = new Lockfile();
+        lockfile.add(java);
+        lockfile.add(natives);
+        Path file = temp.getRoot().toPath().resolve("opencv.lock");
+        lockfile.write(file);
+
+        Lockfile read = Lockfile.read(file);
+        assertEquals(Arrays.asList(java, natives), read.getArtifacts());
+        assertEquals(java, read.get("opencv-java", "3.1.0", null));
+        assertEquals(natives, read.get("opencv-natives", "3.1.0", "linux-x86_64"));
+        assertNull(read.get("opencv-natives", "3.1.0", "windows-x86_64"));
+        assertEquals(Collections.singleton("3.1.0"), read.getVersions());
+    }
+
+    @Test
+    public void testDependencies() throws IOException {
+        LockedArtifact natives = new LockedArtifact("opencv-natives", "3.1.0", null, 456, HASH,
+                "https://example.com/opencv-natives-3.1.0.jar");
+        LockedArtifact tbb = new LockedArtifact("tbb", "4.4", "linux-x86_64", 789, HASH,
+                "https://example.com/org/tbb/tbb/4.4/tbb-4.4-linux-x86_64.zip", "org.tbb", "opencv-natives:3.1.0");
+        Lockfile lockfile = new Lockfile();
+        lockfile.add(natives);
+        lockfile.add(tbb);
+        Path file = temp.getRoot().toPath().resolve("opencv.lock");
+        lockfile.write(file);
+
+        Lockfile read = Lockfile.read(file);
+        assertEquals(Arrays.asList(natives, tbb), read.getArtifacts());
+        assertEquals(Collections.singletonList(tbb), read.getDependencies("opencv-natives:3.1.0"));
+        assertEquals(Collections.emptyList(), read.getDependencies("opencv-java:3.1.0"));
+        // Dependencies aren't OpenCV artifacts, so they can't be looked up as one
+        assertNull(read.get("tbb", "4.4", "linux-x86_64"));
+        assertEquals(Collections.singleton("3.1.0"), read.getVersions());
+    }
+
+    @After
+    public void resetInstaller() {
+        Installer.setLockfile(null);
+    }
+
+    @Test
+    public void testLockedFeatureBuildsInstallOnBaselineHosts() throws IOException {
+        Path repo = temp.newFolder("repo").toPath();
+        Path dir = repo.resolve("org/opencv/opencv-natives/3.1.0");
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("opencv-natives-3.1.0.pom"), ("<project><groupId>org.opencv</groupId>"
+                + "<artifactId>opencv-natives</artifactId><version>3.1.0</version></project>")
+                .getBytes(StandardCharsets.UTF_8));
+        writeJar(dir.resolve("opencv-natives-3.1.0-linux-x86_64.jar"), "libopencv_baseline.so");
+        writeJar(dir.resolve("opencv-natives-3.1.0-linux-x86_64-avx2.jar"), "libopencv_avx2.so");
+        Installer.setRepositoryUrl(repo.toUri().toString());
+
+        // Written on a machine that asks for AVX2 builds
+        Installer.setCpuFeatures(Collections.singletonList("avx2"));
+        Path file = temp.getRoot().toPath().resolve("opencv.lock");
+        Installer.writeLockfile(file, Collections.singletonList("3.1.0"),
+                Collections.singletonList(Linux64.INSTANCE), Collections.singletonList(ArtifactType.NATIVES));
+        Lockfile lockfile = Lockfile.read(file);
+        assertNotNull(lockfile.get("opencv-natives", "3.1.0", "linux-x86_64"));
+        assertNotNull(lockfile.get("opencv-natives", "3.1.0", "linux-x86_64-avx2"));
+
+        // Installed on a machine without AVX2
+        Installer.setCpuFeatures(Collections.emptyList());
+        Installer.setLockfile(lockfile);
+        Path location = temp.newFolder("install").toPath();
+        Installer.install(ArtifactType.NATIVES, "3.1.0", Linux64.INSTANCE, location);
+        assertTrue(Files.exists(location.resolve("libopencv_baseline.so")));
+        assertFalse(Files.exists(location.resolve("libopencv_avx2.so")));
+    }
+
+    @Test
+    public void testIgnoresCommentsAndBlankLines() throws IOException {
+        Path file = write("# a comment", "", "opencv-java 3.1.0 - 1 " + HASH + " https://example.com/a.jar");
+        assertEquals(1, Lockfile.read(file).getArtifacts().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongColumnCount() throws IOException {
+        Lockfile.read(write("opencv-java 3.1.0 - 1 " + HASH));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedSize() throws IOException {
+        Lockfile.read(write("opencv-java 3.1.0 - big " + HASH + " https://example.com/a.jar"));
+    }
+
+    private static void writeJar(Path jar, String library) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            zip.putNextEntry(new ZipEntry(library));
+            zip.write(library.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private Path write(String... lines) throws IOException {
+        Path file = temp.getRoot().toPath().resolve("test.lock");
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+}
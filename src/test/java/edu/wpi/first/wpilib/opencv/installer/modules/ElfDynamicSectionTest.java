@@ -0,0 +1,58 @@
+package edu.wpi.first.wpilib.opencv.installer.modules;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ElfDynamicSectionTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testReadsSonameAndNeeded() throws IOException {
+        Path library = temp.getRoot().toPath().resolve("libopencv_imgproc.so.3.1.0");
+        ElfFiles.write(library, "libopencv_imgproc.so.3.1", "libopencv_core.so.3.1", "libc.so.6");
+
+        ElfDynamicSection dynamic = ElfDynamicSection.read(library);
+        assertEquals("libopencv_imgproc.so.3.1", dynamic.getSoname());
+        assertEquals(Arrays.asList("libopencv_core.so.3.1", "libc.so.6"), dynamic.getNeeded());
+    }
+
+    @Test
+    public void testNoSoname() throws IOException {
+        Path library = temp.getRoot().toPath().resolve("libfoo.so");
+        ElfFiles.write(library, null);
+
+        ElfDynamicSection dynamic = ElfDynamicSection.read(library);
+        assertNull(dynamic.getSoname());
+        assertEquals(Collections.emptyList(), dynamic.getNeeded());
+    }
+
+    @Test
+    public void testNotAnElfFile() throws IOException {
+        Path file = temp.getRoot().toPath().resolve("opencv_core310.dll");
+        Files.write(file, "MZ this is a windows library".getBytes("UTF-8"));
+        assertNull(ElfDynamicSection.read(file));
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedFile() throws IOException {
+        Path library = temp.getRoot().toPath().resolve("libfoo.so");
+        ElfFiles.write(library, "libfoo.so", "libbar.so");
+        byte[] bytes = Files.readAllBytes(library);
+        Files.write(library, Arrays.copyOf(bytes, bytes.length - 20));
+        ElfDynamicSection.read(library);
+    }
+
+}
@@ -0,0 +1,91 @@
+package edu.wpi.first.wpilib.opencv.installer.modules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes minimal 64-bit little-endian ELF shared objects with a dynamic section, for tests.
+ */
+final class ElfFiles {
+
+    private static final long BASE_ADDRESS = 0x400000;
+    private static final int HEADER_SIZE = 64;
+    private static final int PROGRAM_HEADER_SIZE = 56;
+
+    private ElfFiles() {
+    }
+
+    /**
+     * Writes a shared object.
+     *
+     * @param file   the file to write
+     * @param soname the {@code DT_SONAME} of the library, or {@code null} for none
+     * @param needed the {@code DT_NEEDED} entries of the library
+     */
+    static void write(Path file, String soname, String... needed) throws IOException {
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        strings.write(0);
+        long sonameOffset = soname == null ? -1 : append(strings, soname);
+        List<Long> neededOffsets = new ArrayList<>();
+        for (String library : needed) {
+            neededOffsets.add(append(strings, library));
+        }
+
+        int stringsOffset = HEADER_SIZE + 2 * PROGRAM_HEADER_SIZE;
+        int dynamicOffset = (stringsOffset + strings.size() + 7) & ~7;
+        int dynamicEntries = 3 + neededOffsets.size() + (soname == null ? 0 : 1);
+        int size = dynamicOffset + dynamicEntries * 16;
+
+        ByteBuffer elf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        elf.put(new byte[]{0x7F, 'E', 'L', 'F', 2, 1, 1});
+        elf.putShort(0x10, (short) 3); // ET_DYN
+        elf.putLong(0x20, HEADER_SIZE);
+        elf.putShort(0x34, (short) HEADER_SIZE);
+        elf.putShort(0x36, (short) PROGRAM_HEADER_SIZE);
+        elf.putShort(0x38, (short) 2);
+
+        programHeader(elf, HEADER_SIZE, 1, 0, size);
+        programHeader(elf, HEADER_SIZE + PROGRAM_HEADER_SIZE, 2, dynamicOffset, dynamicEntries * 16);
+
+        elf.position(stringsOffset);
+        elf.put(strings.toByteArray());
+
+        elf.position(dynamicOffset);
+        for (long offset : neededOffsets) {
+            elf.putLong(1).putLong(offset);
+        }
+        if (soname != null) {
+            elf.putLong(14).putLong(sonameOffset);
+        }
+        elf.putLong(5).putLong(BASE_ADDRESS + stringsOffset);
+        elf.putLong(10).putLong(strings.size());
+        elf.putLong(0).putLong(0);
+
+        Files.write(file, elf.array());
+    }
+
+    private static void programHeader(ByteBuffer elf, int at, int type, long offset, long size) {
+        elf.putInt(at, type);
+        elf.putLong(at + 8, offset);
+        elf.putLong(at + 16, BASE_ADDRESS + offset);
+        elf.putLong(at + 24, BASE_ADDRESS + offset);
+        elf.putLong(at + 32, size);
+        elf.putLong(at + 40, size);
+    }
+
+    private static long append(ByteArrayOutputStream strings, String value) {
+        long offset = strings.size();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strings.write(bytes, 0, bytes.length);
+        strings.write(0);
+        return offset;
+    }
+
+}
@@ -0,0 +1,58 @@
+package edu.wpi.first.wpilib.opencv.installer.modules;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ModuleSelectorTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path tree;
+
+    @Before
+    public void setUp() throws IOException {
+        tree = temp.getRoot().toPath().resolve("natives");
+        Files.createDirectories(tree.resolve("lib"));
+        ElfFiles.write(tree.resolve("lib/libopencv_core.so"), "libopencv_core.so.3.1");
+        ElfFiles.write(tree.resolve("lib/libopencv_imgproc.so"), "libopencv_imgproc.so.3.1", "libopencv_core.so.3.1");
+        ElfFiles.write(tree.resolve("lib/libopencv_highgui.so"), "libopencv_highgui.so.3.1",
+                "libopencv_imgproc.so.3.1");
+        Files.write(tree.resolve("include.h"), new byte[0]);
+    }
+
+    @Test
+    public void testSelectsDependencyClosure() throws IOException {
+        ModuleSelection selection = ModuleSelector.select(tree, Collections.singletonList("imgproc"));
+        assertTrue(selection.test("lib/libopencv_core.so"));
+        assertTrue(selection.test("lib/libopencv_imgproc.so"));
+        assertFalse(selection.test("lib/libopencv_highgui.so"));
+        // Anything that isn't a library is always installed
+        assertTrue(selection.test("include.h"));
+        assertEquals(2, selection.getLibrariesKept());
+    }
+
+    @Test
+    public void testUnknownModuleListsAvailableModules() throws IOException {
+        try {
+            ModuleSelector.select(tree, Arrays.asList("core", "cuda"));
+            fail("Selected an unknown module");
+        } catch (UnknownModuleException e) {
+            assertEquals("No library for module 'cuda'. Available modules are [core, highgui, imgproc]", e.getMessage());
+        }
+    }
+
+}